@@ -0,0 +1,110 @@
+import benchmarks.CrosscheckTargets;
+import tech.tablesaw.api.Table;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exposes the scoring code to the benchmarks package (see CrosscheckTargets).
+ */
+public class BenchmarkTargets implements CrosscheckTargets {
+	private final static Timepoint[] TIMEPOINTS = Timepoint.values();
+
+	private final NormTableRegistry normTables;
+	private final RbansScorer scorer;
+	private final Crosschecker crosschecker;
+
+	public BenchmarkTargets() throws IOException {
+		normTables = NormTableRegistry.openDefault();
+		scorer = new RbansScorer(normTables);
+		crosschecker = new Crosschecker(scorer);
+	}
+
+	@Override
+	public int timepoint(String name) {
+		Timepoint timepoint = Timepoint.parse(name);
+		return (timepoint == null) ? -1 : timepoint.ordinal();
+	}
+
+	@Override
+	public int ageBand(int age) {
+		return RbansScorer.ageBand(age);
+	}
+
+	@Override
+	public int calculateImmediateMemoryScore(int timepoint, int ageBand, int storyMemoryScore, int listLearningScore) {
+		return scorer.calculateImmediateMemoryScore(TIMEPOINTS[timepoint], ageBand, storyMemoryScore, listLearningScore);
+	}
+
+	@Override
+	public int calculateVisuospatialScore(int timepoint, int ageBand, int lineOrientationScore, int figureCopyScore) {
+		return scorer.calculateVisuospatialScore(TIMEPOINTS[timepoint], ageBand, lineOrientationScore, figureCopyScore);
+	}
+
+	@Override
+	public int calculateLanguageScore(int timepoint, int ageBand, int pictureNamingScore, int semanticFluencyScore) {
+		return scorer.calculateLanguageScore(TIMEPOINTS[timepoint], ageBand, pictureNamingScore, semanticFluencyScore);
+	}
+
+	@Override
+	public int calculateAttentionScore(int timepoint, int ageBand, int digitSpanScore, int codingScore) {
+		return scorer.calculateAttentionScore(TIMEPOINTS[timepoint], ageBand, digitSpanScore, codingScore);
+	}
+
+	@Override
+	public int calculateDelayedMemoryScore(int timepoint, int ageBand, int listRecognitionScore, int listRecallScore, int storyRecallScore, int figureRecallScore) {
+		return scorer.calculateDelayedMemoryScore(TIMEPOINTS[timepoint], ageBand, listRecognitionScore, listRecallScore, storyRecallScore, figureRecallScore);
+	}
+
+	@Override
+	public List<String> missingHeaders(List<String> headers) {
+		return Crosschecker.hasCorrectCsvHeaders(Crosschecker.EXPECTED_HEADERS, headers);
+	}
+
+	@Override
+	public int crosscheckTable(Path scoresFile) {
+		Table table = Table.read().csv(scoresFile.toFile());
+		AtomicInteger mismatches = new AtomicInteger();
+		crosschecker.crosscheck(table, mismatch -> mismatches.incrementAndGet(), () -> {});
+		return mismatches.get();
+	}
+
+	@Override
+	public int crosscheckColumnar(Path scoresFile, boolean vectorized) {
+		ColumnarCrosscheck columnar = new ColumnarCrosscheck(crosschecker, vectorized);
+		Table table = Table.read().csv(scoresFile.toFile());
+		AtomicInteger mismatches = new AtomicInteger();
+		columnar.crosscheck(table, mismatch -> mismatches.incrementAndGet());
+		return mismatches.get();
+	}
+
+	@Override
+	public int crosscheckStream(Path scoresFile) throws IOException {
+		try (ScoreFileReader reader = new ScoreFileReader(scoresFile)) {
+			AtomicInteger mismatches = new AtomicInteger();
+			crosschecker.crosscheck(reader, mismatch -> mismatches.incrementAndGet(), () -> {});
+			return mismatches.get();
+		}
+	}
+
+	@Override
+	public int normTableColumns(String test) {
+		return normTables.columnCount(firstTable(test));
+	}
+
+	@Override
+	public int normTableRows(String test) {
+		return normTables.rowCount(firstTable(test));
+	}
+
+	private static int firstTable(String test) {
+		for (int i = 0; i < NormTableRegistry.TESTS.length; i++) {
+			if (NormTableRegistry.TESTS[i].equals(test)) {
+				return NormTableRegistry.tableIndex(0, i, 0);
+			}
+		}
+		throw new IllegalArgumentException("Unknown test: " + test);
+	}
+}
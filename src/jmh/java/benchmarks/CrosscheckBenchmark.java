@@ -0,0 +1,68 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end crosscheck of a scores file: loaded into a Tablesaw table and scored row by row or column by column, and
+ * streamed row by row. "crosscheck" runs RBANS_Crosscheck.csv; a row count runs a synthetic file of that size (see
+ * SyntheticScoreFileGenerator), which is generated into target/synthetic the first time it is needed.
+ *
+ * The column by column crosscheck is measured with each way of comparing scores. Only columnarVector's fork loads
+ * the incubating Vector API module, and it fails unless the benchmarks were built with -P benchmarks,vector.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CrosscheckBenchmark {
+	final static String CROSSCHECK_FILE = "src/main/resources/RBANS_Crosscheck.csv";
+
+	@Param({"crosscheck", "10000", "1000000"})
+	public String source;
+
+	private CrosscheckTargets targets;
+	private Path scoresFile;
+
+	@Setup
+	public void setup() throws Exception {
+		targets = CrosscheckTargets.load();
+		scoresFile = source.equals("crosscheck") ? Path.of(CROSSCHECK_FILE)
+				: SyntheticScoreFileGenerator.cached(targets, Long.parseLong(source), SyntheticScoreFileGenerator.DEFAULT_SEED);
+	}
+
+	@Benchmark
+	public int table() throws Exception {
+		return targets.crosscheckTable(scoresFile);
+	}
+
+	@Benchmark
+	public int columnarScalar() throws Exception {
+		return targets.crosscheckColumnar(scoresFile, false);
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+	public int columnarVector() throws Exception {
+		return targets.crosscheckColumnar(scoresFile, true);
+	}
+
+	@Benchmark
+	public int stream() throws Exception {
+		return targets.crosscheckStream(scoresFile);
+	}
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The scoring code benchmarked by this package. JMH will not run benchmarks in the default package, and classes in a
+ * named package can't refer to the default package, so the benchmarks reach the scorer through this interface. It is
+ * implemented by BenchmarkTargets in the default package and loaded once per trial.
+ */
+public interface CrosscheckTargets {
+	String IMPLEMENTATION = "BenchmarkTargets";
+
+	/**
+	 * Loads the default-package implementation along with the norm tables. Benchmarks must run from the repository
+	 * root so the norm tables can be found.
+	 */
+	static CrosscheckTargets load() throws ReflectiveOperationException {
+		return (CrosscheckTargets) Class.forName(IMPLEMENTATION).getDeclaredConstructor().newInstance();
+	}
+
+	/**
+	 * @param name A "Timepoint" cell such as "Baseline"
+	 * @return The timepoint's key for the calculators below, or -1 if the name isn't a timepoint
+	 */
+	int timepoint(String name);
+
+	/**
+	 * @return The age band key for the calculators below, or a negative result code
+	 */
+	int ageBand(int age);
+
+	int calculateImmediateMemoryScore(int timepoint, int ageBand, int storyMemoryScore, int listLearningScore);
+
+	int calculateVisuospatialScore(int timepoint, int ageBand, int lineOrientationScore, int figureCopyScore);
+
+	int calculateLanguageScore(int timepoint, int ageBand, int pictureNamingScore, int semanticFluencyScore);
+
+	int calculateAttentionScore(int timepoint, int ageBand, int digitSpanScore, int codingScore);
+
+	int calculateDelayedMemoryScore(int timepoint, int ageBand, int listRecognitionScore, int listRecallScore, int storyRecallScore, int figureRecallScore);
+
+	/**
+	 * @return The expected headers missing from the given headers
+	 */
+	List<String> missingHeaders(List<String> headers);
+
+	/**
+	 * Loads a scores file into a Tablesaw table and crosschecks it
+	 * @return The number of mismatches found
+	 */
+	int crosscheckTable(Path scoresFile) throws Exception;
+
+	/**
+	 * Loads a scores file into a Tablesaw table and crosschecks it a column at a time
+	 * @param vectorized Whether to compare scores with the Vector API; throws if it isn't available
+	 * @return The number of mismatches found
+	 */
+	int crosscheckColumnar(Path scoresFile, boolean vectorized) throws Exception;
+
+	/**
+	 * Crosschecks a scores file row by row as it is read
+	 * @return The number of mismatches found
+	 */
+	int crosscheckStream(Path scoresFile) throws Exception;
+
+	/**
+	 * @param test A norm table test name, e.g. "attention"
+	 * @return The number of header (column) raw scores in that test's norm tables
+	 */
+	int normTableColumns(String test);
+
+	/**
+	 * @param test A norm table test name, e.g. "attention"
+	 * @return The number of vertical (row) raw scores in that test's norm tables
+	 */
+	int normTableRows(String test);
+}
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming crosscheck of a 10 million row synthetic file. Too large to load into a Tablesaw table, so only the
+ * streaming path is measured, one whole file per shot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LargeFileBenchmark {
+	@Param({"10000000"})
+	public long rows;
+
+	private CrosscheckTargets targets;
+	private Path scoresFile;
+
+	@Setup
+	public void setup() throws Exception {
+		targets = CrosscheckTargets.load();
+		scoresFile = SyntheticScoreFileGenerator.cached(targets, rows, SyntheticScoreFileGenerator.DEFAULT_SEED);
+	}
+
+	@Benchmark
+	public int stream() throws Exception {
+		return targets.crosscheckStream(scoresFile);
+	}
+}
@@ -0,0 +1,123 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-lookup cost of each domain calculator, the age band lookup, and header validation. Each invocation scores the
+ * next of a fixed, seeded set of inputs so results are comparable across commits.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoringBenchmark {
+	private final static int INPUTS = 1024; // power of two so the next input is a mask away
+	private final static String[] TIMEPOINTS = {"Baseline", "Mid", "Post"};
+
+	private CrosscheckTargets targets;
+	private int[] timepoints;
+	private int[] ageBands;
+	private int[] ages;
+	private int[][] raw; // raw[input][subtest], in the order each calculator takes them
+	private List<String> headers;
+	private int next;
+
+	@Setup
+	public void setup() throws Exception {
+		targets = CrosscheckTargets.load();
+		SplittableRandom random = new SplittableRandom(SyntheticScoreFileGenerator.DEFAULT_SEED);
+		timepoints = new int[INPUTS];
+		ageBands = new int[INPUTS];
+		ages = new int[INPUTS];
+		raw = new int[INPUTS][];
+		int recallSumLimit = targets.normTableRows("delayed-memory");
+		for (int i = 0; i < INPUTS; i++) {
+			timepoints[i] = targets.timepoint(TIMEPOINTS[random.nextInt(TIMEPOINTS.length)]);
+			ages[i] = random.nextInt(20, 70);
+			ageBands[i] = targets.ageBand(ages[i]);
+			int listRecall = random.nextInt(11);
+			int storyRecall = random.nextInt(13);
+			raw[i] = new int[] {
+					random.nextInt(targets.normTableColumns("immediate-memory")),
+					random.nextInt(targets.normTableRows("immediate-memory")),
+					random.nextInt(targets.normTableColumns("visuospatial")),
+					random.nextInt(targets.normTableRows("visuospatial")),
+					random.nextInt(targets.normTableColumns("language")),
+					random.nextInt(targets.normTableRows("language")),
+					random.nextInt(targets.normTableColumns("attention")),
+					random.nextInt(targets.normTableRows("attention")),
+					random.nextInt(targets.normTableColumns("delayed-memory")),
+					listRecall,
+					storyRecall,
+					random.nextInt(recallSumLimit - listRecall - storyRecall)
+			};
+		}
+		try (BufferedReader br = Files.newBufferedReader(Path.of(CrosscheckBenchmark.CROSSCHECK_FILE), StandardCharsets.UTF_8)) {
+			headers = Arrays.asList(br.readLine().replace("\uFEFF", "").split(","));
+		}
+	}
+
+	private int nextInput() {
+		return next++ & (INPUTS - 1);
+	}
+
+	@Benchmark
+	public int immediateMemory() {
+		int i = nextInput();
+		return targets.calculateImmediateMemoryScore(timepoints[i], ageBands[i], raw[i][0], raw[i][1]);
+	}
+
+	@Benchmark
+	public int visuospatial() {
+		int i = nextInput();
+		return targets.calculateVisuospatialScore(timepoints[i], ageBands[i], raw[i][2], raw[i][3]);
+	}
+
+	@Benchmark
+	public int language() {
+		int i = nextInput();
+		return targets.calculateLanguageScore(timepoints[i], ageBands[i], raw[i][4], raw[i][5]);
+	}
+
+	@Benchmark
+	public int attention() {
+		int i = nextInput();
+		return targets.calculateAttentionScore(timepoints[i], ageBands[i], raw[i][6], raw[i][7]);
+	}
+
+	@Benchmark
+	public int delayedMemory() {
+		int i = nextInput();
+		return targets.calculateDelayedMemoryScore(timepoints[i], ageBands[i], raw[i][8], raw[i][9], raw[i][10], raw[i][11]);
+	}
+
+	@Benchmark
+	public int ageBand() {
+		return targets.ageBand(ages[nextInput()]);
+	}
+
+	@Benchmark
+	public List<String> headerValidation() {
+		return targets.missingHeaders(headers);
+	}
+}
@@ -0,0 +1,127 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Writes scores files shaped like RBANS_Crosscheck.csv with any number of rows. Raw scores are drawn from the ranges
+ * covered by the norm tables and the domain index scores are calculated by the scorer, so every row is valid and
+ * crosschecks without mismatches. The same row count and seed always produce the same file.
+ *
+ * Usage: SyntheticScoreFileGenerator rows [seed] [output.csv]
+ */
+public class SyntheticScoreFileGenerator {
+	public final static long DEFAULT_SEED = 20240507L;
+
+	private final static String HEADER = "Subject ID,Group,Age,Timepoint,List Learning,Story Memory,Figure Copy,"
+			+ "Line Orientation,Picture,Semantic Fluency,Digit Span,Coding,List Recall,List Recognition,Story Recall,"
+			+ "Figure Recall,Immediate Memory,Visuospatial/Constructional,Language,Attention,Delayed Memory,Sum Index,"
+			+ "Total Scaled Score,List Learning SS,Story Memory SS,Figure Copy SS,Line Orientation PG,Picture Naming PG,"
+			+ "Semantic Fluency SS,Digit Span SS,Coding SS,List Recall PG,List Recognition PG,Story Recall SS,"
+			+ "Figure Recall SS";
+	private final static String[] TIMEPOINTS = {"Baseline", "Mid", "Post"};
+	// Highest raw scores of the delayed memory recall subtests, whose sum is the delayed memory table's row
+	private final static int MAX_LIST_RECALL = 10;
+	private final static int MAX_STORY_RECALL = 12;
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1 || args.length > 3) {
+			System.err.println("Usage: SyntheticScoreFileGenerator rows [seed] [output.csv]");
+			System.exit(2);
+		}
+		long rows = Long.parseLong(args[0]);
+		long seed = (args.length > 1) ? Long.parseLong(args[1]) : DEFAULT_SEED;
+		Path output = (args.length > 2) ? Path.of(args[2]) : cachePath(rows, seed);
+		generate(CrosscheckTargets.load(), rows, seed, output);
+		System.out.printf("Wrote %d rows to %s\n", rows, output);
+	}
+
+	/**
+	 * Gets a generated file, generating it the first time it is asked for
+	 * @return The path of a file with the given number of rows
+	 */
+	public static Path cached(CrosscheckTargets targets, long rows, long seed) throws Exception {
+		Path file = cachePath(rows, seed);
+		if (!Files.isRegularFile(file)) {
+			Files.createDirectories(file.getParent());
+			Path partial = file.resolveSibling(file.getFileName() + ".tmp");
+			generate(targets, rows, seed, partial);
+			Files.move(partial, file);
+		}
+		return file;
+	}
+
+	private static Path cachePath(long rows, long seed) {
+		return Path.of("target", "synthetic", String.format("rbans-%d-rows-seed-%d.csv", rows, seed));
+	}
+
+	public static void generate(CrosscheckTargets targets, long rows, long seed, Path output) throws Exception {
+		int storyMemoryLimit = targets.normTableColumns("immediate-memory");
+		int listLearningLimit = targets.normTableRows("immediate-memory");
+		int lineOrientationLimit = targets.normTableColumns("visuospatial");
+		int figureCopyLimit = targets.normTableRows("visuospatial");
+		int pictureLimit = targets.normTableColumns("language");
+		int semanticFluencyLimit = targets.normTableRows("language");
+		int digitSpanLimit = targets.normTableColumns("attention");
+		int codingLimit = targets.normTableRows("attention");
+		int listRecognitionLimit = targets.normTableColumns("delayed-memory");
+		int recallSumLimit = targets.normTableRows("delayed-memory");
+
+		SplittableRandom random = new SplittableRandom(seed);
+		StringBuilder sb = new StringBuilder(256);
+		try (BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+			out.write(HEADER);
+			out.write('\n');
+			int age = 0;
+			char group = 'A';
+			for (long i = 0; i < rows; i++) {
+				// Three timepoints per subject
+				String timepoint = TIMEPOINTS[(int) (i % TIMEPOINTS.length)];
+				if (i % TIMEPOINTS.length == 0) {
+					age = random.nextInt(20, 70);
+					group = random.nextBoolean() ? 'A' : 'B';
+				}
+				int timepointKey = targets.timepoint(timepoint);
+				int ageBand = targets.ageBand(age);
+
+				int listLearning = random.nextInt(listLearningLimit);
+				int storyMemory = random.nextInt(storyMemoryLimit);
+				int figureCopy = random.nextInt(figureCopyLimit);
+				int lineOrientation = random.nextInt(lineOrientationLimit);
+				int picture = random.nextInt(pictureLimit);
+				int semanticFluency = random.nextInt(semanticFluencyLimit);
+				int digitSpan = random.nextInt(digitSpanLimit);
+				int coding = random.nextInt(codingLimit);
+				int listRecall = random.nextInt(Math.min(MAX_LIST_RECALL + 1, recallSumLimit));
+				int storyRecall = random.nextInt(Math.min(MAX_STORY_RECALL + 1, recallSumLimit - listRecall));
+				int figureRecall = random.nextInt(recallSumLimit - listRecall - storyRecall);
+				int listRecognition = random.nextInt(listRecognitionLimit);
+
+				int immediateMemory = targets.calculateImmediateMemoryScore(timepointKey, ageBand, storyMemory, listLearning);
+				int visuospatial = targets.calculateVisuospatialScore(timepointKey, ageBand, lineOrientation, figureCopy);
+				int language = targets.calculateLanguageScore(timepointKey, ageBand, picture, semanticFluency);
+				int attention = targets.calculateAttentionScore(timepointKey, ageBand, digitSpan, coding);
+				int delayedMemory = targets.calculateDelayedMemoryScore(timepointKey, ageBand, listRecognition, listRecall,
+						storyRecall, figureRecall);
+				int sumIndex = immediateMemory + visuospatial + language + attention + delayedMemory;
+
+				sb.setLength(0);
+				sb.append(100 + i / TIMEPOINTS.length).append(',').append(group).append(',').append(age).append(',')
+						.append(timepoint).append(',').append(listLearning).append(',').append(storyMemory).append(',')
+						.append(figureCopy).append(',').append(lineOrientation).append(',').append(picture).append(',')
+						.append(semanticFluency).append(',').append(digitSpan).append(',').append(coding).append(',')
+						.append(listRecall).append(',').append(listRecognition).append(',').append(storyRecall).append(',')
+						.append(figureRecall).append(',').append(immediateMemory).append(',').append(visuospatial)
+						.append(',').append(language).append(',').append(attention).append(',').append(delayedMemory)
+						.append(',').append(sumIndex)
+						// Total scale and subtest scores are not crosschecked
+						.append(",,,,,,,,,,,,,\n");
+				out.append(sb);
+			}
+		}
+	}
+}
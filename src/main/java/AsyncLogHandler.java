@@ -0,0 +1,158 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Hands log records to a background thread that writes them with another handler, so the thread that logs never
+ * waits on the console. If the queue fills up, records are dropped and counted rather than blocking scoring. Only the
+ * writer thread touches the other handler; flush() and close() ask it to flush and wait for it.
+ */
+public class AsyncLogHandler extends Handler {
+	// System property holding the root log level, e.g. -Drbans.log.level=FINE to log every subject
+	public final static String LEVEL_PROPERTY = "rbans.log.level";
+
+	private final static int QUEUE_CAPACITY = 8192;
+	// How long flush() and close() wait for the writer thread
+	private final static long WAIT_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+	private final Handler delegate;
+	private final BlockingQueue<LogRecord> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicBoolean closed = new AtomicBoolean();
+	private final Thread writer;
+
+	/**
+	 * Queued by flush() and close(). The writer thread counts it down once everything queued before it is written.
+	 */
+	private final static class Marker extends LogRecord {
+		private final boolean last;
+		private final CountDownLatch written = new CountDownLatch(1);
+
+		Marker(boolean last) {
+			super(Level.OFF, null);
+			this.last = last;
+		}
+	}
+
+	public AsyncLogHandler(Handler delegate) {
+		this.delegate = delegate;
+		writer = new Thread(this::drain, "rbans-log-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Replaces the root logger's console handlers with an AsyncLogHandler writing to the console. Other handlers, e.g.
+	 * ones set up by java.util.logging.config.file, are kept. The root level is set from the rbans.log.level system
+	 * property, falling back to INFO if it isn't a level, or left as configured (INFO by default) if it isn't set.
+	 */
+	public static void install() {
+		Logger root = Logger.getLogger("");
+		for (Handler existing : root.getHandlers()) {
+			if (existing instanceof ConsoleHandler) {
+				root.removeHandler(existing);
+				existing.close();
+			}
+		}
+		ConsoleHandler console = new ConsoleHandler();
+		console.setLevel(Level.ALL);
+		AsyncLogHandler handler = new AsyncLogHandler(console);
+		handler.setLevel(Level.ALL);
+		root.addHandler(handler);
+		String level = System.getProperty(LEVEL_PROPERTY);
+		if (level != null) {
+			try {
+				root.setLevel(Level.parse(level.trim()));
+			} catch (IllegalArgumentException e) {
+				root.setLevel(Level.INFO);
+				root.warning(String.format("%s=%s is not a log level, logging at INFO", LEVEL_PROPERTY, level));
+			}
+		}
+		// Write whatever is still queued when the program exits
+		Runtime.getRuntime().addShutdownHook(new Thread(handler::close, "rbans-log-flush"));
+	}
+
+	/**
+	 * @return The number of records dropped because the queue was full
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	@Override
+	public void publish(LogRecord record) {
+		if (closed.get() || !isLoggable(record)) {
+			return;
+		}
+		// Resolve the caller now; it can't be found from the writer thread
+		record.getSourceClassName();
+		if (!queue.offer(record)) {
+			dropped.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Waits until every record queued so far is written and the console is flushed
+	 */
+	@Override
+	public void flush() {
+		if (!closed.get()) {
+			await(new Marker(false));
+		}
+	}
+
+	/**
+	 * Writes every record queued so far, then closes the console. Only the first call does anything.
+	 */
+	@Override
+	public void close() {
+		if (closed.compareAndSet(false, true)) {
+			await(new Marker(true));
+		}
+	}
+
+	private void await(Marker marker) {
+		try {
+			if (queue.offer(marker, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+				marker.written.await(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void drain() {
+		try {
+			while (true) {
+				LogRecord record = queue.take();
+				if (!(record instanceof Marker marker)) {
+					delegate.publish(record);
+					if (queue.isEmpty()) {
+						delegate.flush();
+					}
+				} else if (!marker.last) {
+					delegate.flush();
+					marker.written.countDown();
+				} else {
+					if (dropped.get() > 0) {
+						delegate.publish(new LogRecord(Level.WARNING, String.format("Dropped %d log records",
+								dropped.get())));
+					}
+					delegate.close();
+					marker.written.countDown();
+					return;
+				}
+			}
+		} catch (InterruptedException e) {
+			// Stopped without being closed
+		}
+	}
+}
@@ -0,0 +1,285 @@
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Headless entry point that crosschecks one or more scores files without any dialogs, e.g. in a nightly pipeline.
+ *
+ * Usage: BatchCrosscheck [--report mismatches.csv|mismatches.jsonl] [--stream] [--threads n] [--correct]
+ *     [--longitudinal subjects.csv] (file.csv | file.xlsx | directory)...
+ *
+ * Directories are searched (not recursively) for ".csv" and ".xlsx" files with the scores file headers, which leaves
+ * out this tool's own reports and audits. Every mismatch is written to the report.
+ * With --stream, each file is scored row by row as it is read instead of being loaded into a table first, so files of
+ * any size can be checked in constant memory; workbooks are always read this way. Otherwise a loaded table is scored a
+ * column at a time (see ColumnarCrosscheck); build with the vector profile and start the JVM with --add-modules
+ * jdk.incubator.vector to compare scores with the Vector API. With --threads greater than 1, rows are scored in
+ * parallel. A loaded file's mismatches are reported sorted by Subject ID, timepoint, and domain once the file is done,
+ * however many threads score it; a streamed file's are reported in file order as they are found, since sorting them
+ * would mean holding them all. The exit code is 0 if every file matched, 1 if any mismatches were found, and 2 if a file could not be checked.
+ *
+ * With --correct, each CSV is then rewritten in place with the calculated index scores (see ScoreFileCorrector), and
+ * the changed cells are added to "name.corrections.csv" next to it.
+ *
+ * With --longitudinal, each subject's calculated scores are collected while the file is scored (see SubjectIndex) and
+ * written to the given report with their change from Baseline and a flag for missing or duplicate timepoints (see
+ * LongitudinalReportWriter). Subjects are matched within each file. Rows are then scored on one thread, since the
+ * index follows file order.
+ */
+public class BatchCrosscheck {
+	public final static int EXIT_OK = 0;
+	public final static int EXIT_MISMATCHES = 1;
+	public final static int EXIT_ERROR = 2;
+
+	private final static String DEFAULT_REPORT = "rbans-mismatches.csv";
+	private final static String USAGE = "Usage: BatchCrosscheck [--report mismatches.csv|mismatches.jsonl] [--stream] [--threads n] [--correct] [--longitudinal subjects.csv] (file.csv | file.xlsx | directory)...";
+
+	public static void main(String[] args) {
+		// Never start AWT, even if something on the classpath asks for it
+		System.setProperty("java.awt.headless", "true");
+		AsyncLogHandler.install();
+		System.exit(run(args));
+	}
+
+	/**
+	 * Runs a batch crosscheck
+	 * @param args Command line arguments
+	 * @return The process exit code
+	 */
+	public static int run(String[] args) {
+		Path report = Path.of(DEFAULT_REPORT);
+		boolean stream = false;
+		boolean correct = false;
+		Path longitudinalReport = null;
+		int threads = 1;
+		List<File> inputs = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--report") && i + 1 < args.length) {
+				report = Path.of(args[++i]);
+			} else if (args[i].equals("--stream")) {
+				stream = true;
+			} else if (args[i].equals("--correct")) {
+				correct = true;
+			} else if (args[i].equals("--longitudinal") && i + 1 < args.length) {
+				longitudinalReport = Path.of(args[++i]);
+			} else if (args[i].equals("--threads") && i + 1 < args.length) {
+				try {
+					threads = Integer.parseInt(args[++i]);
+				} catch (NumberFormatException e) {
+					threads = 0;
+				}
+				if (threads < 1) {
+					System.err.println(USAGE);
+					return EXIT_ERROR;
+				}
+			} else if (args[i].startsWith("--")) {
+				System.err.println(USAGE);
+				return EXIT_ERROR;
+			} else {
+				inputs.addAll(expandInput(new File(args[i])));
+			}
+		}
+		if (inputs.isEmpty()) {
+			System.err.println(USAGE);
+			return EXIT_ERROR;
+		}
+
+		Crosschecker crosschecker;
+		ParallelCrosscheck parallel;
+		try {
+			crosschecker = new Crosschecker(new RbansScorer(NormTableRegistry.openDefault()));
+			parallel = (threads > 1 && longitudinalReport == null) ? new ParallelCrosscheck(crosschecker, threads) : null;
+		} catch (IOException e) {
+			System.err.printf("Could not load norm tables: %s\n", e.getMessage());
+			return EXIT_ERROR;
+		}
+
+		boolean failed = false;
+		CrosscheckMetrics metrics = CrosscheckMetrics.shared();
+		metrics.reset();
+		// Correcting scores every row again; keep those rows out of the crosscheck's metrics
+		Crosschecker corrector = new Crosschecker(crosschecker.getScorer(), new CrosscheckMetrics());
+		try (MismatchReportWriter writer = new MismatchReportWriter(report);
+				LongitudinalReportWriter longitudinal = (longitudinalReport == null) ? null
+						: new LongitudinalReportWriter(longitudinalReport)) {
+			for (File input : inputs) {
+				SubjectIndex subjects = (longitudinal == null) ? null : new SubjectIndex();
+				boolean checked = crosscheckFile(crosschecker, parallel, input, writer, subjects, stream);
+				failed |= !checked;
+				if (checked && longitudinal != null) {
+					longitudinal.write(input.getPath(), subjects);
+				}
+				if (checked && correct) {
+					failed |= !correctFile(corrector, input);
+				}
+			}
+			metrics.finish();
+			System.err.println(metrics.summary());
+			System.err.println(Crosschecker.UNCHECKED_NOTICE);
+			System.err.printf("Checked %d file(s), found %d mismatch(es), report written to %s\n", inputs.size(),
+					writer.getMismatchCount(), report);
+			if (longitudinal != null) {
+				System.err.printf("Wrote %d subject(s), %d with a missing, duplicate, or unknown timepoint, and %d invalid "
+								+ "row(s) to %s\n", longitudinal.getSubjectCount(), longitudinal.getIncompleteCount(),
+						longitudinal.getInvalidRowCount(), longitudinalReport);
+			}
+			if (failed) {
+				return EXIT_ERROR;
+			}
+			return (writer.getMismatchCount() > 0) ? EXIT_MISMATCHES : EXIT_OK;
+		} catch (IOException e) {
+			System.err.printf("Could not write report: %s\n", e.getMessage());
+			return EXIT_ERROR;
+		}
+	}
+
+	/**
+	 * Crosschecks one scores file into the report
+	 * @param subjects Receives every row's calculated scores, or null
+	 * @return Whether the file could be checked
+	 */
+	static boolean crosscheckFile(Crosschecker crosschecker, ParallelCrosscheck parallel, File input,
+			MismatchReportWriter writer, SubjectIndex subjects, boolean stream) {
+		try {
+			Crosschecker.validateFile(input, "csv", "xlsx");
+		} catch (IOException e) {
+			System.err.printf("%s: %s\n", input, e.getMessage());
+			return false;
+		}
+		// Workbooks can only be read a row at a time
+		if (stream || input.getName().toLowerCase(Locale.ROOT).endsWith(".xlsx")) {
+			return streamFile(crosschecker, parallel, input, writer, subjects);
+		}
+
+		Table table;
+		try {
+			table = Table.read().csv(input);
+		} catch (RuntimeException e) {
+			// Tablesaw reports unreadable CSVs with unchecked exceptions; fail this file, not the batch
+			System.err.printf("%s: Could not read: %s\n", input, e.getMessage());
+			return false;
+		}
+		ArrayList<String> missingColumns = Crosschecker.hasCorrectCsvHeaders(Crosschecker.EXPECTED_HEADERS,
+				Crosschecker.columnNames(table));
+		if (!missingColumns.isEmpty()) {
+			System.err.printf("%s: Some headers are not present! %s\n", input, Arrays.toString(missingColumns.toArray()));
+			return false;
+		}
+
+		writer.setSourceFile(input.getPath());
+		try {
+			List<Mismatch> mismatches;
+			if (parallel != null) {
+				mismatches = parallel.crosscheck(table);
+			} else {
+				mismatches = new ArrayList<>();
+				new ColumnarCrosscheck(crosschecker).crosscheck(table, mismatches::add, subjects);
+				mismatches.sort(ParallelCrosscheck.REPORT_ORDER);
+			}
+			mismatches.forEach(writer::accept);
+		} catch (RuntimeException e) {
+			// e.g. a cell scoring can't handle, or the report can't be written; fail this file, not the batch
+			System.err.printf("%s: Could not check: %s\n", input, e);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Crosschecks one scores file (CSV or workbook) row by row as it is read
+	 * @param subjects Receives every row's calculated scores, or null
+	 * @return Whether the file could be checked
+	 */
+	private static boolean streamFile(Crosschecker crosschecker, ParallelCrosscheck parallel, File input,
+			MismatchReportWriter writer, SubjectIndex subjects) {
+		try (ScoreRowSource reader = ScoreRowSource.open(input.toPath())) {
+			ArrayList<String> missingColumns = Crosschecker.hasCorrectCsvHeaders(Crosschecker.EXPECTED_HEADERS,
+					reader.headers());
+			if (!missingColumns.isEmpty()) {
+				System.err.printf("%s: Some headers are not present! %s\n", input, Arrays.toString(missingColumns.toArray()));
+				return false;
+			}
+			writer.setSourceFile(input.getPath());
+			if (parallel != null) {
+				parallel.crosscheck(reader, writer);
+			} else {
+				crosschecker.crosscheck(reader, writer, subjects, () -> {});
+			}
+			return true;
+		} catch (IOException e) {
+			System.err.printf("%s: %s\n", input, e.getMessage());
+			return false;
+		} catch (RuntimeException e) {
+			System.err.printf("%s: Could not check: %s\n", input, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Rewrites one scores CSV with the calculated index scores
+	 * @return Whether the file could be corrected
+	 */
+	private static boolean correctFile(Crosschecker crosschecker, File input) {
+		if (!input.getName().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+			System.err.printf("%s: Only CSV files can be corrected\n", input);
+			return false;
+		}
+		Path scores = input.toPath();
+		Path audit = ScoreFileCorrector.auditFile(scores);
+		try {
+			int corrections = new ScoreFileCorrector(crosschecker).correct(scores, scores, audit, mismatch -> true);
+			if (corrections > 0) {
+				System.err.printf("%s: Corrected %d score(s), changes added to %s\n", input, corrections, audit);
+			}
+			return true;
+		} catch (IOException e) {
+			System.err.printf("%s: Could not correct: %s\n", input, e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * @return The file itself, or the scores files in a directory, sorted by name
+	 */
+	static List<File> expandInput(File input) {
+		if (!input.isDirectory()) {
+			return List.of(input);
+		}
+		File[] files = input.listFiles((dir, name) -> name.endsWith(".csv") || name.endsWith(".xlsx"));
+		if (files == null) {
+			return List.of();
+		}
+		Arrays.sort(files);
+		List<File> scoresFiles = new ArrayList<>(files.length);
+		for (File file : files) {
+			if (isScoresFile(file)) {
+				scoresFiles.add(file);
+			}
+		}
+		return scoresFiles;
+	}
+
+	/**
+	 * Reads just the headers of a file found in a directory, so mismatch reports, longitudinal reports, summaries, and
+	 * audits written there by an earlier run aren't checked as scores files
+	 * @return Whether the file has every expected header
+	 */
+	private static boolean isScoresFile(File file) {
+		try (ScoreRowSource reader = ScoreRowSource.open(file.toPath())) {
+			if (Crosschecker.hasCorrectCsvHeaders(Crosschecker.EXPECTED_HEADERS, reader.headers()).isEmpty()) {
+				return true;
+			}
+			System.err.printf("%s: Skipped, not a scores file\n", file);
+			return false;
+		} catch (IOException e) {
+			System.err.printf("%s: Skipped, could not read headers: %s\n", file, e.getMessage());
+			return false;
+		}
+	}
+}
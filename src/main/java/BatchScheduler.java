@@ -0,0 +1,415 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless entry point that crosschecks many scores files at once, e.g. one per site and wave of a study.
+ *
+ * Usage: BatchScheduler [--manifest files.txt] [--report mismatches.csv|mismatches.jsonl] [--report-dir dir]
+ *     [--jobs n] [--memory-budget mb] (file.csv | file.xlsx | directory)...
+ *
+ * Files come from the command line and from the manifest, which lists one file or directory per line (blank lines and
+ * lines starting with '#' are skipped; relative paths are relative to the manifest). Every file is crosschecked on a
+ * shared pool of --jobs threads (default: one per processor) against one shared set of norm tables.
+ *
+ * Each file's heap use is estimated from its size, and a file only starts once its estimate fits in what is left of
+ * --memory-budget (default: half the maximum heap). A CSV is loaded into a table and scored a column at a time when its
+ * estimate fits in the budget at all; bigger CSVs and workbooks are streamed row by row in constant memory.
+ *
+ * Files are admitted by the calling thread, which hands a file to the pool only once a thread and room in the budget
+ * are both free, so waiting files never hold a pool thread. Files are considered largest first. When the first waiting
+ * file doesn't fit, smaller files behind it that do fit start instead, so many small files run beside large ones; but
+ * once MAX_OVERTAKES files have started ahead of it, nothing else starts until it does, so it can't be starved.
+ *
+ * Once every file is done, each file's mismatches are in the report directory as "NNN-name.mismatches.csv", all of
+ * them are gathered in input order into --report, and "summary.csv" in the report directory lists each file's rows,
+ * mismatches, time spent waiting and running, and why it failed if it did. A file that fails doesn't stop the
+ * others. The exit codes match BatchCrosscheck's.
+ */
+public class BatchScheduler {
+	private final static String DEFAULT_REPORT = "rbans-mismatches.csv";
+	private final static String DEFAULT_REPORT_DIRECTORY = "rbans-reports";
+	private final static String SUMMARY_FILE = "summary.csv";
+	private final static String USAGE = "Usage: BatchScheduler [--manifest files.txt] [--report mismatches.csv|mismatches.jsonl] [--report-dir dir] [--jobs n] [--memory-budget mb] (file.csv | file.xlsx | directory)...";
+
+	// Heap estimates: a loaded table takes a few times the size of its CSV, a workbook's shared strings take about its
+	// compressed size, and every file needs read buffers and a report writer
+	private final static long TABLE_BYTES_PER_FILE_BYTE = 4;
+	private final static long WORKBOOK_BYTES_PER_FILE_BYTE = 2;
+	private final static long JOB_OVERHEAD_BYTES = 4L << 20;
+	// The budget is counted in KiB so budgets up to 2 TiB fit in an int
+	private final static int PERMIT_BYTES = 1024;
+	// Files that may start ahead of the first waiting file before it gets the next room in the budget
+	private final static int MAX_OVERTAKES = 16;
+
+	/**
+	 * How one file was scheduled and how it went
+	 * @param index Position in the input order, from 0
+	 * @param input The scores file
+	 * @param report The file's own mismatch report
+	 * @param stream Whether the file was read row by row instead of loaded into a table
+	 * @param permits Budget the file held while it ran, in KiB
+	 */
+	private record Job(int index, File input, Path report, boolean stream, int permits) {
+	}
+
+	/**
+	 * @param checked Whether the file could be checked
+	 * @param rows Rows crosschecked
+	 * @param mismatches Mismatches found
+	 * @param queuedNanos Time spent waiting for a thread and for room in the budget, from the start of the batch
+	 * @param runNanos Time spent crosschecking
+	 * @param error Why the file failed, if it threw, or null
+	 */
+	private record Result(Job job, boolean checked, long rows, int mismatches, long queuedNanos, long runNanos,
+			String error) {
+	}
+
+	private final Crosschecker crosschecker;
+	private final int jobs;
+	private final long budgetBytes;
+	private int mostRunning = 0; // only touched by the admitting thread
+
+	/**
+	 * @param crosschecker Shared by every file; only its scorer is used, so each file gets its own metrics
+	 * @param jobs Files crosschecked at once at most
+	 * @param budgetBytes Estimated heap all running files may use together
+	 */
+	public BatchScheduler(Crosschecker crosschecker, int jobs, long budgetBytes) {
+		this.crosschecker = crosschecker;
+		this.jobs = jobs;
+		this.budgetBytes = budgetBytes;
+	}
+
+	public static void main(String[] args) {
+		// Never start AWT, even if something on the classpath asks for it
+		System.setProperty("java.awt.headless", "true");
+		AsyncLogHandler.install();
+		System.exit(run(args));
+	}
+
+	/**
+	 * Runs a scheduled batch crosscheck
+	 * @param args Command line arguments
+	 * @return The process exit code
+	 */
+	public static int run(String[] args) {
+		Path report = Path.of(DEFAULT_REPORT);
+		Path reportDirectory = Path.of(DEFAULT_REPORT_DIRECTORY);
+		int jobs = Runtime.getRuntime().availableProcessors();
+		long budgetBytes = Runtime.getRuntime().maxMemory() / 2;
+		List<File> inputs = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--report") && i + 1 < args.length) {
+				report = Path.of(args[++i]);
+			} else if (args[i].equals("--report-dir") && i + 1 < args.length) {
+				reportDirectory = Path.of(args[++i]);
+			} else if (args[i].equals("--manifest") && i + 1 < args.length) {
+				try {
+					inputs.addAll(readManifest(Path.of(args[++i])));
+				} catch (IOException e) {
+					System.err.printf("Could not read manifest %s: %s\n", args[i], e.getMessage());
+					return BatchCrosscheck.EXIT_ERROR;
+				}
+			} else if ((args[i].equals("--jobs") || args[i].equals("--memory-budget")) && i + 1 < args.length) {
+				long value;
+				try {
+					value = Long.parseLong(args[i + 1]);
+				} catch (NumberFormatException e) {
+					value = 0;
+				}
+				if (value < 1 || (args[i].equals("--jobs") && value > Integer.MAX_VALUE)) {
+					System.err.println(USAGE);
+					return BatchCrosscheck.EXIT_ERROR;
+				}
+				if (args[i].equals("--jobs")) {
+					jobs = (int) value;
+				} else {
+					budgetBytes = value << 20;
+				}
+				i++;
+			} else if (args[i].startsWith("--")) {
+				System.err.println(USAGE);
+				return BatchCrosscheck.EXIT_ERROR;
+			} else {
+				inputs.addAll(BatchCrosscheck.expandInput(new File(args[i])));
+			}
+		}
+		if (inputs.isEmpty()) {
+			System.err.println(USAGE);
+			return BatchCrosscheck.EXIT_ERROR;
+		}
+
+		Crosschecker crosschecker;
+		try {
+			crosschecker = new Crosschecker(new RbansScorer(NormTableRegistry.openDefault()));
+		} catch (IOException e) {
+			System.err.printf("Could not load norm tables: %s\n", e.getMessage());
+			return BatchCrosscheck.EXIT_ERROR;
+		}
+		try {
+			return new BatchScheduler(crosschecker, jobs, budgetBytes).crosscheck(inputs, report, reportDirectory);
+		} catch (IOException e) {
+			System.err.printf("Could not write reports: %s\n", e.getMessage());
+			return BatchCrosscheck.EXIT_ERROR;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return BatchCrosscheck.EXIT_ERROR;
+		}
+	}
+
+	/**
+	 * Reads the files listed in a manifest
+	 * @return Every listed file, with listed directories expanded
+	 */
+	static List<File> readManifest(Path manifest) throws IOException {
+		Path directory = manifest.toAbsolutePath().getParent();
+		List<File> inputs = new ArrayList<>();
+		for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+			String entry = line.strip();
+			if (entry.isEmpty() || entry.startsWith("#")) {
+				continue;
+			}
+			inputs.addAll(BatchCrosscheck.expandInput(directory.resolve(entry).toFile()));
+		}
+		return inputs;
+	}
+
+	/**
+	 * Crosschecks every file and writes the reports
+	 * @param inputs Scores files, in the order they are reported
+	 * @param report Where every file's mismatches are gathered
+	 * @param reportDirectory Where each file's report and the summary go
+	 * @return The process exit code
+	 */
+	public int crosscheck(List<File> inputs, Path report, Path reportDirectory) throws IOException, InterruptedException {
+		Files.createDirectories(reportDirectory);
+		String reportExtension = report.getFileName().toString().endsWith(".jsonl") ? ".jsonl" : ".csv";
+		int width = Integer.toString(inputs.size()).length();
+
+		List<Job> queue = new ArrayList<>(inputs.size());
+		for (int i = 0; i < inputs.size(); i++) {
+			File input = inputs.get(i);
+			Path fileReport = reportDirectory.resolve(String.format("%0" + width + "d-%s.mismatches%s", i + 1,
+					input.getName(), reportExtension));
+			queue.add(plan(i, input, fileReport));
+		}
+		// Longest first, so the run doesn't end waiting on one big file
+		queue.sort(Comparator.comparingLong((Job job) -> job.input().length()).reversed());
+
+		long start = System.nanoTime();
+		Result[] results = new Result[inputs.size()];
+		ExecutorService pool = Executors.newFixedThreadPool(jobs);
+		try {
+			dispatch(new LinkedList<>(queue), new ExecutorCompletionService<>(pool), start, results);
+		} catch (ExecutionException e) {
+			throw new IOException("Crosscheck failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		long wallNanos = System.nanoTime() - start;
+
+		int mismatchCount = gatherReports(results, report);
+		writeSummary(results, reportDirectory.resolve(SUMMARY_FILE));
+
+		long rows = 0;
+		boolean failed = false;
+		for (Result result : results) {
+			rows += result.rows();
+			failed |= !result.checked();
+		}
+		System.err.printf("Checked %d file(s) on %d thread(s) with a %d MiB budget (at most %d at once): %d rows, "
+						+ "%d mismatch(es) in %.1f s (%.0f rows/sec)\n", inputs.size(), jobs, budgetBytes >> 20,
+				mostRunning, rows, mismatchCount, wallNanos / 1e9, rows / Math.max(wallNanos / 1e9, 1e-9));
+		System.err.printf("Report written to %s, per-file reports and %s in %s\n", report, SUMMARY_FILE, reportDirectory);
+		System.err.println(Crosschecker.UNCHECKED_NOTICE);
+		if (failed) {
+			return BatchCrosscheck.EXIT_ERROR;
+		}
+		return (mismatchCount > 0) ? BatchCrosscheck.EXIT_MISMATCHES : BatchCrosscheck.EXIT_OK;
+	}
+
+	/**
+	 * Estimates a file's heap use and picks how to read it
+	 */
+	private Job plan(int index, File input, Path report) {
+		long size = input.length();
+		boolean workbook = input.getName().toLowerCase(Locale.ROOT).endsWith(".xlsx");
+		long tableBytes = JOB_OVERHEAD_BYTES + size * TABLE_BYTES_PER_FILE_BYTE;
+		long estimate;
+		boolean stream;
+		if (workbook) {
+			estimate = JOB_OVERHEAD_BYTES + size * WORKBOOK_BYTES_PER_FILE_BYTE;
+			stream = true;
+		} else if (tableBytes <= budgetBytes) {
+			estimate = tableBytes;
+			stream = false;
+		} else {
+			// Too big to load; reading it a row at a time needs only the buffers
+			estimate = JOB_OVERHEAD_BYTES;
+			stream = true;
+		}
+		// A file estimated at more than the whole budget runs alone
+		return new Job(index, input, report, stream, Math.min(permits(estimate), permits(budgetBytes)));
+	}
+
+	private static int permits(long bytes) {
+		return (int) Math.min(Integer.MAX_VALUE, Math.max(1, (bytes + PERMIT_BYTES - 1) / PERMIT_BYTES));
+	}
+
+	/**
+	 * Hands files to the pool as threads and budget free up, until every file is done
+	 * @param waiting Files not yet started, in the order they should start
+	 * @param pool Runs the admitted files
+	 * @param queuedSince When the files started waiting
+	 * @param results Receives each file's result at its input index
+	 */
+	private void dispatch(LinkedList<Job> waiting, CompletionService<Result> pool, long queuedSince, Result[] results)
+			throws InterruptedException, ExecutionException {
+		int freeThreads = jobs;
+		int freePermits = permits(budgetBytes);
+		int running = 0;
+		int overtakes = 0; // files started ahead of the first waiting file
+		while (!waiting.isEmpty() || running > 0) {
+			Iterator<Job> next = waiting.iterator();
+			Job head = waiting.peekFirst();
+			while (freeThreads > 0 && next.hasNext()) {
+				Job job = next.next();
+				if (job.permits() > freePermits) {
+					if (job == head && overtakes >= MAX_OVERTAKES) {
+						break; // Hold the budget for the first file as it frees up
+					}
+					continue;
+				}
+				next.remove();
+				if (job == head) {
+					overtakes = 0;
+					head = waiting.peekFirst();
+				} else {
+					overtakes++;
+				}
+				pool.submit(() -> run(job, queuedSince));
+				freeThreads--;
+				freePermits -= job.permits();
+				running++;
+				mostRunning = Math.max(mostRunning, running);
+			}
+			// Nothing running means the whole budget was free, so the first file started
+			Result result = pool.take().get();
+			results[result.job().index()] = result;
+			freeThreads++;
+			freePermits += result.job().permits();
+			running--;
+		}
+	}
+
+	/**
+	 * Crosschecks one admitted file. Anything it throws fails only this file, so every other file still gets its
+	 * report and summary row.
+	 */
+	private Result run(Job job, long queuedSince) {
+		long started = System.nanoTime();
+		// Per-file metrics, on the shared norm tables
+		Crosschecker fileCrosschecker = new Crosschecker(crosschecker.getScorer(), new CrosscheckMetrics());
+		boolean checked = false;
+		int mismatches = 0;
+		String error = null;
+		try (MismatchReportWriter writer = new MismatchReportWriter(job.report())) {
+			try {
+				checked = BatchCrosscheck.crosscheckFile(fileCrosschecker, null, job.input(), writer, null,
+						job.stream());
+			} finally {
+				mismatches = writer.getMismatchCount();
+			}
+		} catch (IOException | RuntimeException e) {
+			System.err.printf("%s: Could not check: %s\n", job.input(), e);
+			checked = false;
+			error = e.toString();
+		}
+		long finished = System.nanoTime();
+		return new Result(job, checked, fileCrosschecker.getMetrics().getRowsScored(), mismatches,
+				started - queuedSince, finished - started, error);
+	}
+
+	/**
+	 * Appends every file's report, without its header, to the combined report in input order
+	 * @return The number of mismatches in the combined report
+	 */
+	private static int gatherReports(Result[] results, Path report) throws IOException {
+		int mismatchCount = 0;
+		try (FileChannel out = FileChannel.open(report, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			boolean first = true;
+			for (Result result : results) {
+				if (!Files.isRegularFile(result.job().report())) {
+					continue; // The file failed before its report could be created
+				}
+				mismatchCount += result.mismatches();
+				try (FileChannel in = FileChannel.open(result.job().report(), StandardOpenOption.READ)) {
+					// Only the first file's CSV header is kept
+					long position = first ? 0 : headerLength(result.job().report());
+					first = false;
+					long size = in.size();
+					while (position < size) {
+						position += in.transferTo(position, size - position, out);
+					}
+				}
+			}
+		}
+		return mismatchCount;
+	}
+
+	/**
+	 * @return The length of a CSV report's header line, or 0 for a JSON lines report
+	 */
+	private static long headerLength(Path report) throws IOException {
+		if (report.getFileName().toString().endsWith(".jsonl")) {
+			return 0;
+		}
+		try (InputStream in = Files.newInputStream(report)) {
+			long length = 0;
+			int b;
+			while ((b = in.read()) >= 0) {
+				length++;
+				if (b == '\n') {
+					break;
+				}
+			}
+			return length;
+		}
+	}
+
+	private static void writeSummary(Result[] results, Path summary) throws IOException {
+		try (BufferedWriter out = Files.newBufferedWriter(summary, StandardCharsets.UTF_8)) {
+			out.write("File,Status,Bytes,Mode,Budget KiB,Rows,Mismatches,Queued ms,Run ms,Rows/sec,Report,Error\n");
+			for (Result result : results) {
+				Job job = result.job();
+				double seconds = result.runNanos() / 1e9;
+				out.write(String.format(Locale.ROOT, "%s,%s,%d,%s,%d,%d,%d,%.1f,%.1f,%.0f,%s,%s\n",
+						MismatchReportWriter.escapeCsv(job.input().getPath()), result.checked() ? "checked" : "failed",
+						job.input().length(), job.stream() ? "stream" : "table", job.permits(), result.rows(),
+						result.mismatches(), result.queuedNanos() / 1e6, result.runNanos() / 1e6,
+						(seconds > 0) ? result.rows() / seconds : 0,
+						MismatchReportWriter.escapeCsv(job.report().getFileName().toString()),
+						(result.error() == null) ? "" : MismatchReportWriter.escapeCsv(result.error())));
+			}
+		}
+	}
+}
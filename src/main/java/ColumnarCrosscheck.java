@@ -0,0 +1,300 @@
+import tech.tablesaw.api.Table;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Crosschecks a whole table a column at a time instead of a row at a time. The scored columns are pulled out of the
+ * table as int arrays, each domain's scores are looked up for every row in one tight loop, and the calculated scores
+ * are compared with the given column several rows at a time using the Vector API when it's available. The comparison
+ * leaves a bitmap of mismatching rows per domain, and only the set bits are turned into Mismatches.
+ *
+ * Mismatches come out in the same order as Crosschecker.crosscheck(Table, ...): by row, then in Domain order. Rows
+ * that can't be fully scored are handed to Crosschecker.crosscheckRow(...) so they are logged and counted as usual.
+ *
+ * The Vector API comparison is VectorMismatchKernel, which is only compiled by the "vector" Maven profile (mvn -P vector
+ * package) and only used when the JVM is started with --add-modules jdk.incubator.vector.
+ */
+public class ColumnarCrosscheck {
+	// System property that turns the Vector API off, e.g. -Drbans.vector=false to compare against the scalar loop
+	public final static String VECTOR_PROPERTY = "rbans.vector";
+
+	/**
+	 * Sets the bit of each scorable row whose calculated score differs from its given score
+	 */
+	interface MismatchKernel {
+		/**
+		 * @param calculated Calculated index scores
+		 * @param given Given index scores
+		 * @param worst Lowest result of each row's domains; the row is skipped if it's a result code
+		 * @param rowCount Number of rows to compare
+		 * @param bitmap One bit per row, row r at bit (r % 64) of word (r / 64)
+		 */
+		void mismatches(int[] calculated, int[] given, int[] worst, int rowCount, long[] bitmap);
+	}
+
+	private final static MismatchKernel KERNEL = loadKernel();
+	public final static boolean VECTORIZED = !(KERNEL instanceof ScalarMismatchKernel);
+
+	private final static Timepoint[] TIMEPOINTS = Timepoint.values();
+	private final static Domain[] DOMAINS = Domain.values();
+	private final static int NOT_A_TIMEPOINT = -1;
+
+	private final Crosschecker crosschecker;
+	private final RbansScorer scorer;
+	private final MismatchKernel kernel;
+
+	/**
+	 * @param crosschecker Crosschecker whose scorer and metrics are used
+	 */
+	public ColumnarCrosscheck(Crosschecker crosschecker) {
+		this(crosschecker, VECTORIZED);
+	}
+
+	/**
+	 * Picks the comparison explicitly, e.g. so a benchmark measures the one it names
+	 * @param crosschecker Crosschecker whose scorer and metrics are used
+	 * @param vectorized Whether to compare scores with the Vector API rather than scalar code
+	 * @throws IllegalStateException If the Vector API was asked for but isn't available
+	 */
+	public ColumnarCrosscheck(Crosschecker crosschecker, boolean vectorized) {
+		if (vectorized && !VECTORIZED) {
+			throw new IllegalStateException("The Vector API is unavailable; build with the vector profile and start "
+					+ "the JVM with --add-modules jdk.incubator.vector");
+		}
+		this.crosschecker = crosschecker;
+		this.scorer = crosschecker.getScorer();
+		this.kernel = vectorized ? KERNEL : new ScalarMismatchKernel();
+	}
+
+	private static MismatchKernel loadKernel() {
+		if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))) {
+			return new ScalarMismatchKernel();
+		}
+		try {
+			// Present only when the JVM is started with --add-modules jdk.incubator.vector
+			Class.forName("jdk.incubator.vector.IntVector");
+			// Present only when built with the vector profile
+			return (MismatchKernel) Class.forName("VectorMismatchKernel").getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			Logger.getLogger(ColumnarCrosscheck.class.getName())
+					.fine("Vector API unavailable, comparing scores one row at a time");
+			return new ScalarMismatchKernel();
+		}
+	}
+
+	private final static class ScalarMismatchKernel implements MismatchKernel {
+		@Override
+		public void mismatches(int[] calculated, int[] given, int[] worst, int rowCount, long[] bitmap) {
+			scalarMismatches(calculated, given, worst, 0, rowCount, bitmap);
+		}
+	}
+
+	/**
+	 * Crosschecks every row of a loaded table
+	 * @param table A scores table that has all EXPECTED_HEADERS
+	 * @param mismatches Receives each mismatch, in row order
+	 * @return The number of rows crosschecked
+	 */
+	public int crosscheck(Table table, MismatchSink mismatches) {
+		return crosscheck(table, mismatches, null);
+	}
+
+	/**
+	 * Crosschecks every row of a loaded table, also collecting each subject's scores across timepoints
+	 * @param table A scores table that has all EXPECTED_HEADERS
+	 * @param mismatches Receives each mismatch, in row order
+	 * @param subjects Receives every row's calculated scores, in row order, or null
+	 * @return The number of rows crosschecked
+	 */
+	public int crosscheck(Table table, MismatchSink mismatches, SubjectIndex subjects) {
+		List<String> headers = Crosschecker.columnNames(table);
+		int[] columns = Crosschecker.resolveColumns(headers);
+		int rowCount = table.rowCount();
+
+		int[][] values = new int[columns.length][];
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i] < 0) {
+				values[i] = new int[rowCount];
+				Arrays.fill(values[i], ScoreRowSource.MISSING_INT);
+			} else {
+				values[i] = Crosschecker.intValues(table.column(columns[i]), rowCount);
+			}
+		}
+		int[] timepoints = new int[rowCount];
+		int timepointColumn = headers.indexOf("Timepoint");
+		for (int r = 0; r < rowCount; r++) {
+			Timepoint timepoint = Crosschecker.timepoint(table, timepointColumn, r);
+			timepoints[r] = (timepoint == null) ? NOT_A_TIMEPOINT : timepoint.ordinal();
+		}
+		crosscheck(values, timepoints, rowCount, mismatches, subjects);
+		return rowCount;
+	}
+
+	/**
+	 * Crosschecks rows held column by column
+	 * @param values One array per SCORED_COLUMNS, each holding every row's value
+	 * @param timepoints Each row's Timepoint ordinal, or -1 if it isn't one
+	 * @param rowCount Number of rows
+	 * @param mismatches Receives each mismatch, in row order
+	 * @param subjects Receives every row's calculated scores, in row order, or null
+	 */
+	void crosscheck(int[][] values, int[] timepoints, int rowCount, MismatchSink mismatches, SubjectIndex subjects) {
+		// Stage and age are shared by every domain, so they are resolved once per row
+		int[] ageBands = new int[rowCount];
+		int[] worst = new int[rowCount];
+		int[] ages = values[Crosschecker.AGE];
+		for (int r = 0; r < rowCount; r++) {
+			ageBands[r] = RbansScorer.ageBand(ages[r]);
+			worst[r] = (timepoints[r] == NOT_A_TIMEPOINT) ? RbansScorer.OUT_OF_RANGE : Math.min(ageBands[r], 0);
+		}
+
+		int[][] calculated = new int[DOMAINS.length][];
+		for (Domain domain : DOMAINS) {
+			// The Sum Index comes last, so every index score it adds up is already calculated
+			int[] scores = domain.hasNormTable() ? score(domain, values, timepoints, ageBands, worst, rowCount)
+					: sumIndex(calculated, worst, rowCount);
+			for (int r = 0; r < rowCount; r++) {
+				worst[r] = Math.min(worst[r], scores[r]);
+			}
+			calculated[domain.ordinal()] = scores;
+		}
+
+		long[][] bitmaps = new long[DOMAINS.length][(rowCount + 63) >>> 6];
+		for (Domain domain : DOMAINS) {
+			int[] given = values[Crosschecker.FIRST_GIVEN + domain.ordinal()];
+			kernel.mismatches(calculated[domain.ordinal()], given, worst, rowCount, bitmaps[domain.ordinal()]);
+		}
+
+		// Rows that couldn't be scored go through the row path so they are logged and counted the same way
+		int[] row = new int[values.length];
+		int scoredRows = 0;
+		for (int r = 0; r < rowCount; r++) {
+			if (worst[r] < 0) {
+				for (int i = 0; i < values.length; i++) {
+					row[i] = values[i][r];
+				}
+				crosschecker.crosscheckRow((timepoints[r] == NOT_A_TIMEPOINT) ? null : TIMEPOINTS[timepoints[r]], row,
+						mismatches, subjects);
+			} else {
+				scoredRows++;
+				if (subjects != null) {
+					subjects.add(values[Crosschecker.SUBJECT_ID][r], TIMEPOINTS[timepoints[r]],
+							calculated[Domain.IMMEDIATE_MEMORY.ordinal()][r], calculated[Domain.VISUOSPATIAL.ordinal()][r],
+							calculated[Domain.LANGUAGE.ordinal()][r], calculated[Domain.ATTENTION.ordinal()][r],
+							calculated[Domain.DELAYED_MEMORY.ordinal()][r]);
+				}
+			}
+		}
+		crosschecker.getMetrics().rowsScored(scoredRows);
+
+		int[] subjectIds = values[Crosschecker.SUBJECT_ID];
+		for (int word = 0; word < bitmaps[0].length; word++) {
+			long any = 0;
+			for (long[] bitmap : bitmaps) {
+				any |= bitmap[word];
+			}
+			while (any != 0) {
+				int r = (word << 6) + Long.numberOfTrailingZeros(any);
+				any &= any - 1;
+				for (Domain domain : DOMAINS) {
+					if ((bitmaps[domain.ordinal()][word] & (1L << r)) != 0) {
+						crosschecker.getMetrics().mismatch();
+						mismatches.accept(new Mismatch(subjectIds[r], TIMEPOINTS[timepoints[r]], domain,
+								values[Crosschecker.FIRST_GIVEN + domain.ordinal()][r], calculated[domain.ordinal()][r]));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Looks up one domain's index score for every row. Rows already known to be unscorable are left at zero.
+	 */
+	private int[] score(Domain domain, int[][] values, int[] timepoints, int[] ageBands, int[] worst, int rowCount) {
+		int[] scores = new int[rowCount];
+		switch (domain) {
+			case IMMEDIATE_MEMORY -> {
+				int[] storyMemory = values[Crosschecker.STORY_MEMORY];
+				int[] listLearning = values[Crosschecker.LIST_LEARNING];
+				for (int r = 0; r < rowCount; r++) {
+					if (worst[r] >= 0) {
+						scores[r] = scorer.calculateImmediateMemoryScore(TIMEPOINTS[timepoints[r]], ageBands[r], storyMemory[r], listLearning[r]);
+					}
+				}
+			}
+			case VISUOSPATIAL -> {
+				int[] lineOrientation = values[Crosschecker.LINE_ORIENTATION];
+				int[] figureCopy = values[Crosschecker.FIGURE_COPY];
+				for (int r = 0; r < rowCount; r++) {
+					if (worst[r] >= 0) {
+						scores[r] = scorer.calculateVisuospatialScore(TIMEPOINTS[timepoints[r]], ageBands[r], lineOrientation[r], figureCopy[r]);
+					}
+				}
+			}
+			case LANGUAGE -> {
+				int[] picture = values[Crosschecker.PICTURE];
+				int[] semanticFluency = values[Crosschecker.SEMANTIC_FLUENCY];
+				for (int r = 0; r < rowCount; r++) {
+					if (worst[r] >= 0) {
+						scores[r] = scorer.calculateLanguageScore(TIMEPOINTS[timepoints[r]], ageBands[r], picture[r], semanticFluency[r]);
+					}
+				}
+			}
+			case ATTENTION -> {
+				int[] digitSpan = values[Crosschecker.DIGIT_SPAN];
+				int[] coding = values[Crosschecker.CODING];
+				for (int r = 0; r < rowCount; r++) {
+					if (worst[r] >= 0) {
+						scores[r] = scorer.calculateAttentionScore(TIMEPOINTS[timepoints[r]], ageBands[r], digitSpan[r], coding[r]);
+					}
+				}
+			}
+			case DELAYED_MEMORY -> {
+				int[] listRecognition = values[Crosschecker.LIST_RECOGNITION];
+				int[] listRecall = values[Crosschecker.LIST_RECALL];
+				int[] storyRecall = values[Crosschecker.STORY_RECALL];
+				int[] figureRecall = values[Crosschecker.FIGURE_RECALL];
+				for (int r = 0; r < rowCount; r++) {
+					if (worst[r] >= 0) {
+						scores[r] = scorer.calculateDelayedMemoryScore(TIMEPOINTS[timepoints[r]], ageBands[r], listRecognition[r], listRecall[r], storyRecall[r], figureRecall[r]);
+					}
+				}
+			}
+		}
+		return scores;
+	}
+
+	/**
+	 * Adds up each row's five index scores. Rows already known to be unscorable are left at zero.
+	 */
+	private static int[] sumIndex(int[][] calculated, int[] worst, int rowCount) {
+		int[] immediateMemory = calculated[Domain.IMMEDIATE_MEMORY.ordinal()];
+		int[] visuospatial = calculated[Domain.VISUOSPATIAL.ordinal()];
+		int[] language = calculated[Domain.LANGUAGE.ordinal()];
+		int[] attention = calculated[Domain.ATTENTION.ordinal()];
+		int[] delayedMemory = calculated[Domain.DELAYED_MEMORY.ordinal()];
+		int[] scores = new int[rowCount];
+		for (int r = 0; r < rowCount; r++) {
+			if (worst[r] >= 0) {
+				scores[r] = Crosschecker.sumIndex(immediateMemory[r], visuospatial[r], language[r], attention[r],
+						delayedMemory[r]);
+			}
+		}
+		return scores;
+	}
+
+	/**
+	 * Scalar version of VectorMismatchKernel.mismatches(...), also used for the rows after the last full vector
+	 * @param from First row to compare
+	 * @param to Row after the last row to compare
+	 */
+	static void scalarMismatches(int[] calculated, int[] given, int[] worst, int from, int to, long[] bitmap) {
+		for (int r = from; r < to; r++) {
+			if (worst[r] >= 0 && calculated[r] != given[r]) {
+				bitmap[r >>> 6] |= 1L << r;
+			}
+		}
+	}
+}
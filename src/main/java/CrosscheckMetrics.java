@@ -0,0 +1,197 @@
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Counts what a crosscheck has done so far. Counters are LongAdders so scoring threads never contend on them.
+ * Lookup latency is only timed on about one row in LOOKUP_SAMPLE_INTERVAL to keep clock reads off most rows. Rows are
+ * picked with each thread's own ThreadLocalRandom, so sampling writes no shared state either.
+ *
+ * One instance is shared by the whole program and published over JMX (see CrosscheckMetricsMXBean).
+ */
+public class CrosscheckMetrics implements CrosscheckMetricsMXBean {
+	public final static String OBJECT_NAME = "rbans:type=CrosscheckMetrics";
+
+	private final static int LOOKUP_SAMPLE_INTERVAL = 64; // power of two
+	private final static Logger LOGGER = Logger.getLogger(CrosscheckMetrics.class.getName());
+	private final static CrosscheckMetrics SHARED = register(new CrosscheckMetrics());
+
+	private final LongAdder rowsScored = new LongAdder();
+	private final LongAdder mismatches = new LongAdder();
+	private final LongAdder emptyCellRows = new LongAdder();
+	private final LongAdder outOfRangeRows = new LongAdder();
+	private final LongAdder invalidRows = new LongAdder();
+	private final LongAdder[] lookupCounts = new LongAdder[Domain.values().length];
+	private final LongAdder[] lookupNanos = new LongAdder[Domain.values().length];
+	private final LongAccumulator[] maxLookupNanos = new LongAccumulator[Domain.values().length];
+	private volatile long startNanos = System.nanoTime();
+	private volatile long finishNanos = 0;
+
+	CrosscheckMetrics() {
+		for (int i = 0; i < lookupCounts.length; i++) {
+			lookupCounts[i] = new LongAdder();
+			lookupNanos[i] = new LongAdder();
+			maxLookupNanos[i] = new LongAccumulator(Math::max, 0);
+		}
+	}
+
+	/**
+	 * @return The metrics shared by every crosscheck in this program
+	 */
+	public static CrosscheckMetrics shared() {
+		return SHARED;
+	}
+
+	private static CrosscheckMetrics register(CrosscheckMetrics metrics) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+		} catch (JMException | SecurityException e) {
+			LOGGER.log(Level.WARNING, "Could not publish crosscheck metrics over JMX", e);
+		}
+		return metrics;
+	}
+
+	/**
+	 * Clears every counter and starts timing a new run
+	 */
+	@Override
+	public void reset() {
+		rowsScored.reset();
+		mismatches.reset();
+		emptyCellRows.reset();
+		outOfRangeRows.reset();
+		invalidRows.reset();
+		for (int i = 0; i < lookupCounts.length; i++) {
+			lookupCounts[i].reset();
+			lookupNanos[i].reset();
+			maxLookupNanos[i].reset();
+		}
+		finishNanos = 0;
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Stops the run clock so rows per second stays fixed after the run
+	 */
+	public void finish() {
+		finishNanos = System.nanoTime();
+	}
+
+	void rowScored() {
+		rowsScored.increment();
+	}
+
+	void rowsScored(int count) {
+		rowsScored.add(count);
+	}
+
+	void mismatch() {
+		mismatches.increment();
+	}
+
+	void emptyCellRow() {
+		emptyCellRows.increment();
+	}
+
+	void outOfRangeRow() {
+		outOfRangeRows.increment();
+	}
+
+	void invalidRow() {
+		invalidRows.increment();
+	}
+
+	/**
+	 * @return Whether the caller should time this row's lookups
+	 */
+	boolean sampleLookups() {
+		return (ThreadLocalRandom.current().nextInt() & (LOOKUP_SAMPLE_INTERVAL - 1)) == 0;
+	}
+
+	void lookupTimed(Domain domain, long nanos) {
+		lookupCounts[domain.ordinal()].increment();
+		lookupNanos[domain.ordinal()].add(nanos);
+		maxLookupNanos[domain.ordinal()].accumulate(nanos);
+	}
+
+	@Override
+	public long getRowsScored() {
+		return rowsScored.sum();
+	}
+
+	@Override
+	public double getRowsPerSecond() {
+		long end = (finishNanos != 0) ? finishNanos : System.nanoTime();
+		double seconds = (end - startNanos) / 1e9;
+		return (seconds > 0) ? getRowsScored() / seconds : 0;
+	}
+
+	@Override
+	public long getMismatches() {
+		return mismatches.sum();
+	}
+
+	@Override
+	public long getEmptyCellRows() {
+		return emptyCellRows.sum();
+	}
+
+	@Override
+	public long getOutOfRangeRows() {
+		return outOfRangeRows.sum();
+	}
+
+	@Override
+	public long getInvalidRows() {
+		return invalidRows.sum();
+	}
+
+	@Override
+	public Map<String, Double> getMeanLookupNanos() {
+		Map<String, Double> means = new LinkedHashMap<>();
+		for (Domain domain : Domain.values()) {
+			if (!domain.hasNormTable()) {
+				continue;
+			}
+			long count = lookupCounts[domain.ordinal()].sum();
+			means.put(domain.label(), (count > 0) ? (double) lookupNanos[domain.ordinal()].sum() / count : 0);
+		}
+		return means;
+	}
+
+	@Override
+	public Map<String, Long> getMaxLookupNanos() {
+		Map<String, Long> maxes = new LinkedHashMap<>();
+		for (Domain domain : Domain.values()) {
+			if (!domain.hasNormTable()) {
+				continue;
+			}
+			maxes.put(domain.label(), maxLookupNanos[domain.ordinal()].get());
+		}
+		return maxes;
+	}
+
+	/**
+	 * @return A few lines describing the run, for the end of a crosscheck
+	 */
+	public String summary() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Scored %d rows (%.0f rows/sec): %d mismatches, %d rows with empty cells, "
+						+ "%d rows outside the norm tables, %d rows with an unknown timepoint or age",
+				getRowsScored(), getRowsPerSecond(), getMismatches(), getEmptyCellRows(), getOutOfRangeRows(),
+				getInvalidRows()));
+		Map<String, Long> maxes = getMaxLookupNanos();
+		for (Map.Entry<String, Double> mean : getMeanLookupNanos().entrySet()) {
+			sb.append(String.format("\n  %s lookup: mean %.0f ns, max %d ns", mean.getKey(), mean.getValue(),
+					maxes.get(mean.getKey())));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,30 @@
+import java.util.Map;
+
+/**
+ * Crosscheck counters and timers, published over JMX as rbans:type=CrosscheckMetrics.
+ */
+public interface CrosscheckMetricsMXBean {
+	long getRowsScored();
+
+	double getRowsPerSecond();
+
+	long getMismatches();
+
+	long getEmptyCellRows();
+
+	long getOutOfRangeRows();
+
+	long getInvalidRows();
+
+	/**
+	 * @return Mean norm table lookup time per domain, in nanoseconds, over the sampled rows
+	 */
+	Map<String, Double> getMeanLookupNanos();
+
+	/**
+	 * @return Slowest sampled norm table lookup per domain, in nanoseconds
+	 */
+	Map<String, Long> getMaxLookupNanos();
+
+	void reset();
+}
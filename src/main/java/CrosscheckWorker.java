@@ -0,0 +1,120 @@
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a crosscheck off the event dispatch thread and reports its progress on it. Scoring calls rowScored() once per
+ * row, which only bumps a counter; the count is published at most FRAMES_PER_SECOND times a second, and Swing merges
+ * whatever piles up between repaints, so the window stays responsive on files of any size.
+ *
+ * Once cancelled, get() throws straight away while the task may still be reading its file; call awaitStopped()
+ * before closing anything the task reads from.
+ */
+public class CrosscheckWorker extends SwingWorker<Long, Long> {
+	// How often the progress bar is repainted
+	private final static int FRAMES_PER_SECOND = 20;
+	private final static long FRAME_NANOS = 1_000_000_000L / FRAMES_PER_SECOND;
+	// Rows between clock reads; a power of two
+	private final static int CLOCK_INTERVAL_ROWS = 256;
+
+	/**
+	 * A crosscheck to run in the background
+	 */
+	@FunctionalInterface
+	public interface Task {
+		/**
+		 * @param rowScored Must be run after each row; throws CancellationException once the user cancels
+		 * @return The number of rows crosschecked
+		 */
+		long run(Runnable rowScored) throws Exception;
+	}
+
+	private final Task task;
+	private final ProgressBar progressBar; // null if opening it was interrupted
+	private long rows = 0; // only touched by the worker thread
+	private long startNanos;
+	private long lastPublishNanos;
+	// Claimed by whichever comes first: the task starting, or awaitStopped() on a worker that hasn't started
+	private final AtomicBoolean claimed = new AtomicBoolean();
+	private final CountDownLatch finished = new CountDownLatch(1);
+
+	/**
+	 * @param task The crosscheck to run
+	 * @param totalRows Rows the crosscheck will score, or -1 if unknown
+	 */
+	public CrosscheckWorker(Task task, long totalRows) {
+		this.task = task;
+		this.progressBar = ProgressBar.open(totalRows, () -> cancel(false));
+	}
+
+	@Override
+	protected Long doInBackground() throws Exception {
+		if (!claimed.compareAndSet(false, true)) {
+			throw new CancellationException();
+		}
+		try {
+			startNanos = System.nanoTime();
+			lastPublishNanos = startNanos;
+			return task.run(this::rowScored);
+		} finally {
+			finished.countDown();
+		}
+	}
+
+	/**
+	 * Call after cancel(...). Waits, even if interrupted, until the task has returned or thrown, which a cancelled task
+	 * does within CLOCK_INTERVAL_ROWS rows. If the task hasn't started yet, it never will.
+	 */
+	public void awaitStopped() {
+		if (claimed.compareAndSet(false, true)) {
+			return;
+		}
+		boolean interrupted = false;
+		while (true) {
+			try {
+				finished.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void rowScored() {
+		rows++;
+		if ((rows & (CLOCK_INTERVAL_ROWS - 1)) != 0) {
+			return;
+		}
+		if (isCancelled()) {
+			throw new CancellationException();
+		}
+		long now = System.nanoTime();
+		if (now - lastPublishNanos >= FRAME_NANOS) {
+			lastPublishNanos = now;
+			publish(rows);
+		}
+	}
+
+	@Override
+	protected void process(List<Long> chunks) {
+		// Only the latest count matters
+		if (progressBar == null) {
+			return;
+		}
+		long completed = chunks.get(chunks.size() - 1);
+		double seconds = (System.nanoTime() - startNanos) / 1e9;
+		progressBar.showProgress(completed, (seconds > 0) ? completed / seconds : 0);
+	}
+
+	@Override
+	protected void done() {
+		if (progressBar != null) {
+			progressBar.dispose();
+		}
+	}
+}
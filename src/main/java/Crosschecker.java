@@ -0,0 +1,421 @@
+import Exceptions.FileIsDirectoryException;
+import Exceptions.FileReadPermissionException;
+import Exceptions.WrongFileExtension;
+import tech.tablesaw.api.IntColumn;
+import tech.tablesaw.api.NumberColumn;
+import tech.tablesaw.api.Table;
+import tech.tablesaw.columns.Column;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Recalculates each subject's domain index scores and Sum Index and reports the ones that don't match the scores
+ * file. Holds no GUI code so it can be driven by both Main and BatchCrosscheck.
+ *
+ * The Total Scaled Score and the subtest SS and PG columns (UNCHECKED_COLUMNS) must be present but are not checked:
+ * no norm tables for them ship with the program yet, so every entry point tells the user so (UNCHECKED_NOTICE).
+ */
+public class Crosschecker {
+	public final static String[] EXPECTED_HEADERS = {"Subject ID", "Group", "Age", "Timepoint", "List Learning",
+			"Figure Copy", "Line Orientation", "Picture", "Semantic Fluency", "Digit Span", "Coding", "List Recall",
+			"List Recognition", "Story Recall", "Figure Recall", "Immediate Memory", "Visuospatial/Constructional",
+			"Language", "Attention", "Delayed Memory", "Sum Index", "Total Scaled Score", "List Learning SS",
+			"Story Memory SS", "Figure Copy SS", "Line Orientation PG", "Picture Naming PG", "Semantic Fluency SS",
+			"Digit Span SS", "Coding SS", "List Recall PG", "List Recognition PG", "Story Recall SS",
+			"Figure Recall SS"};
+
+	// Columns read from each row, in the order crosscheckRow(...) expects them
+	public final static String[] SCORED_COLUMNS = {"Subject ID", "Age", "Story Memory", "List Learning",
+			"Line Orientation", "Figure Copy", "Picture", "Semantic Fluency", "Digit Span", "Coding", "List Recognition",
+			"List Recall", "Story Recall", "Figure Recall", "Immediate Memory", "Visuospatial/Constructional", "Language",
+			"Attention", "Delayed Memory", "Sum Index"};
+	final static int SUBJECT_ID = 0;
+	final static int AGE = 1;
+	final static int STORY_MEMORY = 2;
+	final static int LIST_LEARNING = 3;
+	final static int LINE_ORIENTATION = 4;
+	final static int FIGURE_COPY = 5;
+	final static int PICTURE = 6;
+	final static int SEMANTIC_FLUENCY = 7;
+	final static int DIGIT_SPAN = 8;
+	final static int CODING = 9;
+	final static int LIST_RECOGNITION = 10;
+	final static int LIST_RECALL = 11;
+	final static int STORY_RECALL = 12;
+	final static int FIGURE_RECALL = 13;
+	// The given index scores and Sum Index follow in Domain order
+	final static int FIRST_GIVEN = 14;
+
+	// Columns in EXPECTED_HEADERS that are not crosschecked, since there are no norm tables for them
+	public final static String[] UNCHECKED_COLUMNS = {"Total Scaled Score", "List Learning SS", "Story Memory SS",
+			"Figure Copy SS", "Line Orientation PG", "Picture Naming PG", "Semantic Fluency SS", "Digit Span SS",
+			"Coding SS", "List Recall PG", "List Recognition PG", "Story Recall SS", "Figure Recall SS"};
+	public final static String UNCHECKED_NOTICE = "The Total Scaled Score and subtest SS/PG columns were not checked; "
+			+ "there are no norm tables for them yet.";
+
+	private final static String WRONG_FILE_PATH = "The file does not exist!";
+	private final static String FILE_NOT_READABLE = "Cannot read file -- check its permissions!";
+	private final static String FILE_IS_DIRECTORY = "A folder was selected!";
+	private final static String WRONG_FILE_EXTENSION = "Make sure to select a file that ends with %s!";
+
+	private final static Logger LOGGER = Logger.getLogger(Crosschecker.class.getName());
+
+	private final RbansScorer scorer;
+	private final CrosscheckMetrics metrics;
+
+	public Crosschecker(RbansScorer scorer) {
+		this(scorer, CrosscheckMetrics.shared());
+	}
+
+	public Crosschecker(RbansScorer scorer, CrosscheckMetrics metrics) {
+		this.scorer = scorer;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @return The metrics every crosscheck is counted in
+	 */
+	public CrosscheckMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @return The scorer rows are scored with
+	 */
+	public RbansScorer getScorer() {
+		return scorer;
+	}
+
+	/**
+	 * Ensures the file is a file that can be read, is not a directory, and has one of the expected extensions
+	 * @param file A file to be read
+	 * @param expectedExtensions Extensions without the dot, e.g. "csv"
+	 * @throws IOException
+	 */
+	public static void validateFile(File file, String... expectedExtensions) throws IOException {
+		if (!file.exists()) {
+			// File does not exist
+			throw new FileNotFoundException(WRONG_FILE_PATH);
+		} else if (!file.canRead()) {
+			// Cannot read file
+			throw new FileReadPermissionException(FILE_NOT_READABLE);
+		} else if (file.isDirectory()) {
+			// Can't read a directory
+			throw new FileIsDirectoryException(FILE_IS_DIRECTORY);
+		} else if (!hasExtension(file, expectedExtensions)) {
+			// Can't read other types of files
+			StringJoiner extensions = new StringJoiner("\" or \".", "\".", "\"");
+			for (String extension : expectedExtensions) {
+				extensions.add(extension);
+			}
+			throw new WrongFileExtension(String.format(WRONG_FILE_EXTENSION, extensions));
+		}
+	}
+
+	private static boolean hasExtension(File file, String[] extensions) {
+		String name = file.getName().toLowerCase(Locale.ROOT);
+		for (String extension : extensions) {
+			if (name.endsWith("." + extension)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Ensures that all the expected headers are in a given formatted file
+	 * @param expectedHeaders Headers needed in order to us scoring tables
+	 * @param givenHeaders Headers in a character-delimited file
+	 * @return A List<String> that contains the names of all missing files
+	 */
+	public static ArrayList<String> hasCorrectCsvHeaders(String[] expectedHeaders, List<String> givenHeaders) {
+		ArrayList<String> missingColumns = new ArrayList<>();
+		for (int i = 0; i < expectedHeaders.length; i++) {
+			if (!givenHeaders.contains(expectedHeaders[i])) {
+				missingColumns.add(expectedHeaders[i]);
+			}
+		}
+		return missingColumns;
+	}
+
+	/**
+	 * Gets the names of all columns in a table, in order
+	 * @param table A scores table
+	 * @return The table's column names
+	 */
+	public static ArrayList<String> columnNames(Table table) {
+		ArrayList<String> columnNames = new ArrayList<>();
+		for (Column<?> column : table.columnArray()) {
+			columnNames.add(column.name());
+		}
+		return columnNames;
+	}
+
+	/**
+	 * Resolves where each of SCORED_COLUMNS is in a file, so rows can be read by index instead of by name
+	 * @param headers The file's headers, in order
+	 * @return The index of each of SCORED_COLUMNS, or -1 for a missing column
+	 */
+	public static int[] resolveColumns(List<String> headers) {
+		int[] columns = new int[SCORED_COLUMNS.length];
+		for (int i = 0; i < SCORED_COLUMNS.length; i++) {
+			columns[i] = headers.indexOf(SCORED_COLUMNS[i]);
+		}
+		return columns;
+	}
+
+	/**
+	 * Reads a row's SCORED_COLUMNS, using ScoreRowSource.MISSING_INT for missing columns
+	 * @param table A scores table
+	 * @param row The row's index in the table
+	 */
+	static void readValues(Table table, int row, int[] columns, int[] values) {
+		for (int i = 0; i < columns.length; i++) {
+			values[i] = (columns[i] < 0) ? ScoreRowSource.MISSING_INT : intValue(table.column(columns[i]), row);
+		}
+	}
+
+	/**
+	 * Reads a scored cell whatever type Tablesaw inferred its column as, e.g. doubles because one cell is "12.0",
+	 * or text because one cell is "N/A". Cells that aren't whole numbers read as ScoreRowSource.MISSING_INT, as they
+	 * do in ScoreFileReader, so their rows go through the empty-cell checks.
+	 */
+	static int intValue(Column<?> column, int row) {
+		if (column instanceof IntColumn intColumn) {
+			return intColumn.getInt(row);
+		} else if (column.isMissing(row)) {
+			return ScoreRowSource.MISSING_INT;
+		} else if (column instanceof NumberColumn<?, ?> numbers) {
+			double value = numbers.getDouble(row);
+			boolean whole = value == Math.rint(value) && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+			return whole ? (int) value : ScoreRowSource.MISSING_INT;
+		}
+		char[] cell = column.getString(row).toCharArray();
+		return ScoreFileReader.parseInt(cell, 0, cell.length);
+	}
+
+	/**
+	 * Reads a whole scored column as intValue(...) reads each of its cells
+	 */
+	static int[] intValues(Column<?> column, int rowCount) {
+		if (column instanceof IntColumn intColumn) {
+			return intColumn.asIntArray();
+		}
+		int[] values = new int[rowCount];
+		for (int r = 0; r < rowCount; r++) {
+			values[r] = intValue(column, r);
+		}
+		return values;
+	}
+
+	/**
+	 * Reads a row's "Timepoint" whatever type Tablesaw inferred its column as, e.g. ints if it is all empty
+	 * @return The timepoint, or null if the cell isn't one
+	 */
+	static Timepoint timepoint(Table table, int column, int row) {
+		return Timepoint.parse(table.column(column).getString(row));
+	}
+
+	/**
+	 * Calculates every subject's domain scores and crosschecks them against the given scores
+	 * @param table A scores table that has all EXPECTED_HEADERS
+	 * @param mismatches Receives each mismatch as it is found
+	 * @param rowScored Run after each row, e.g. to advance a progress bar
+	 * @return The number of rows crosschecked
+	 */
+	public int crosscheck(Table table, MismatchSink mismatches, Runnable rowScored) {
+		List<String> headers = columnNames(table);
+		int[] columns = resolveColumns(headers);
+		int timepointColumn = headers.indexOf("Timepoint");
+
+		int rowCount = table.rowCount();
+		int[] values = new int[SCORED_COLUMNS.length];
+		for (int r = 0; r < rowCount; r++) {
+			rowScored.run();
+			readValues(table, r, columns, values);
+			crosscheckRow(timepoint(table, timepointColumn, r), values, mismatches);
+		}
+		return rowCount;
+	}
+
+	/**
+	 * Crosschecks a range of rows. Safe to call from several threads at once on the same table.
+	 * @param table A scores table that has all EXPECTED_HEADERS
+	 * @param fromRow First row to crosscheck
+	 * @param toRow Row after the last row to crosscheck
+	 * @param mismatches Receives each mismatch as it is found
+	 */
+	public void crosscheck(Table table, int fromRow, int toRow, MismatchSink mismatches) {
+		List<String> headers = columnNames(table);
+		int[] columns = resolveColumns(headers);
+		int timepointColumn = headers.indexOf("Timepoint");
+
+		int[] values = new int[SCORED_COLUMNS.length];
+		for (int r = fromRow; r < toRow; r++) {
+			readValues(table, r, columns, values);
+			crosscheckRow(timepoint(table, timepointColumn, r), values, mismatches);
+		}
+	}
+
+	/**
+	 * Crosschecks a scores file as it is read, so memory use stays the same no matter how many rows it has
+	 * @param reader A reader positioned before the first row of a file that has all EXPECTED_HEADERS
+	 * @param mismatches Receives each mismatch as soon as its row is scored
+	 * @param rowScored Run after each row, e.g. to advance a progress bar
+	 * @return The number of rows crosschecked
+	 */
+	public long crosscheck(ScoreRowSource reader, MismatchSink mismatches, Runnable rowScored) throws IOException {
+		return crosscheck(reader, mismatches, null, rowScored);
+	}
+
+	/**
+	 * Crosschecks a scores file as it is read, also collecting each subject's scores across timepoints
+	 * @param reader A reader positioned before the first row of a file that has all EXPECTED_HEADERS
+	 * @param mismatches Receives each mismatch as soon as its row is scored
+	 * @param subjects Receives every row's calculated scores, or null
+	 * @param rowScored Run after each row, e.g. to advance a progress bar
+	 * @return The number of rows crosschecked
+	 */
+	public long crosscheck(ScoreRowSource reader, MismatchSink mismatches, SubjectIndex subjects, Runnable rowScored)
+			throws IOException {
+		// Resolve each column once instead of once per row
+		int[] columns = resolveColumns(reader.headers());
+		int timepointColumn = reader.columnIndex("Timepoint");
+
+		long completions = 0;
+		int[] values = new int[SCORED_COLUMNS.length];
+		while (reader.next()) {
+			completions++;
+			rowScored.run();
+			for (int i = 0; i < columns.length; i++) {
+				values[i] = reader.getInt(columns[i]);
+			}
+			crosscheckRow(reader.getTimepoint(timepointColumn), values, mismatches, subjects);
+		}
+		return completions;
+	}
+
+	/**
+	 * Calculates one subject's domain scores and crosschecks them against the given scores. A row that can't be
+	 * fully scored (unknown timepoint, age outside the norm tables, empty or out-of-range raw score) is logged as a
+	 * warning, counted, and skipped.
+	 * @param timepoint The row's "Timepoint", or null if it isn't one
+	 * @param values The row's SCORED_COLUMNS
+	 * @param mismatches Receives each mismatch
+	 */
+	void crosscheckRow(Timepoint timepoint, int[] values, MismatchSink mismatches) {
+		crosscheckRow(timepoint, values, mismatches, null);
+	}
+
+	/**
+	 * Crosschecks one row as above, also recording its scores in a subject index
+	 * @param subjects Receives the row's calculated scores, or null
+	 */
+	void crosscheckRow(Timepoint timepoint, int[] values, MismatchSink mismatches, SubjectIndex subjects) {
+		metrics.rowScored();
+		if (LOGGER.isLoggable(Level.FINE)) {
+			LOGGER.fine(String.format("Subject %d", values[SUBJECT_ID]));
+		}
+		if (timepoint == null) {
+			metrics.invalidRow();
+			warn("Subject %d has an unknown timepoint", values[SUBJECT_ID]);
+			if (subjects != null) {
+				subjects.addUnknownTimepoint(values[SUBJECT_ID]);
+			}
+			return;
+		}
+		int ageBand = RbansScorer.ageBand(values[AGE]);
+		if (!RbansScorer.isScore(ageBand)) {
+			metrics.invalidRow();
+			warn("Subject %d: Age is not within RBANS age range", values[SUBJECT_ID]);
+			if (subjects != null) {
+				subjects.addUnscored(values[SUBJECT_ID], timepoint);
+			}
+			return;
+		}
+
+		// Time the lookups of an occasional row
+		boolean timed = metrics.sampleLookups();
+		long start = timed ? System.nanoTime() : 0;
+		int immediateMemoryScore = scorer.calculateImmediateMemoryScore(timepoint, ageBand, values[STORY_MEMORY], values[LIST_LEARNING]);
+		long afterImmediateMemory = timed ? System.nanoTime() : 0;
+		int visuospatialScore = scorer.calculateVisuospatialScore(timepoint, ageBand, values[LINE_ORIENTATION], values[FIGURE_COPY]);
+		long afterVisuospatial = timed ? System.nanoTime() : 0;
+		int languageScore = scorer.calculateLanguageScore(timepoint, ageBand, values[PICTURE], values[SEMANTIC_FLUENCY]);
+		long afterLanguage = timed ? System.nanoTime() : 0;
+		int attentionScore = scorer.calculateAttentionScore(timepoint, ageBand, values[DIGIT_SPAN], values[CODING]);
+		long afterAttention = timed ? System.nanoTime() : 0;
+		int delayedMemoryScore = scorer.calculateDelayedMemoryScore(timepoint, ageBand, values[LIST_RECOGNITION],
+				values[LIST_RECALL],
+				values[STORY_RECALL], // TODO: Verify
+				values[FIGURE_RECALL]);
+		if (timed) {
+			long afterDelayedMemory = System.nanoTime();
+			metrics.lookupTimed(Domain.IMMEDIATE_MEMORY, afterImmediateMemory - start);
+			metrics.lookupTimed(Domain.VISUOSPATIAL, afterVisuospatial - afterImmediateMemory);
+			metrics.lookupTimed(Domain.LANGUAGE, afterLanguage - afterVisuospatial);
+			metrics.lookupTimed(Domain.ATTENTION, afterAttention - afterLanguage);
+			metrics.lookupTimed(Domain.DELAYED_MEMORY, afterDelayedMemory - afterAttention);
+		}
+
+		int worst = Math.min(Math.min(immediateMemoryScore, visuospatialScore),
+				Math.min(Math.min(languageScore, attentionScore), delayedMemoryScore));
+		if (subjects != null) {
+			if (worst < 0) {
+				subjects.addUnscored(values[SUBJECT_ID], timepoint);
+			} else {
+				subjects.add(values[SUBJECT_ID], timepoint, immediateMemoryScore, visuospatialScore, languageScore,
+						attentionScore, delayedMemoryScore);
+			}
+		}
+		if (worst == RbansScorer.EMPTY_CELL) {
+			metrics.emptyCellRow();
+			warn("Subject %d has an empty cell value", values[SUBJECT_ID]);
+			return;
+		} else if (worst == RbansScorer.OUT_OF_RANGE) {
+			metrics.outOfRangeRow();
+			warn("Subject %d has a raw score outside of the norm tables", values[SUBJECT_ID]);
+			return;
+		}
+
+		// Check if scores match
+		check(values, timepoint, Domain.IMMEDIATE_MEMORY, immediateMemoryScore, mismatches);
+		check(values, timepoint, Domain.VISUOSPATIAL, visuospatialScore, mismatches);
+		check(values, timepoint, Domain.LANGUAGE, languageScore, mismatches);
+		check(values, timepoint, Domain.ATTENTION, attentionScore, mismatches);
+		check(values, timepoint, Domain.DELAYED_MEMORY, delayedMemoryScore, mismatches);
+		// Calculated from the scores just looked up, so it costs no extra read or lookup
+		check(values, timepoint, Domain.SUM_INDEX, sumIndex(immediateMemoryScore, visuospatialScore, languageScore,
+				attentionScore, delayedMemoryScore), mismatches);
+	}
+
+	/**
+	 * @return The Sum Index of five valid domain index scores
+	 */
+	static int sumIndex(int immediateMemoryScore, int visuospatialScore, int languageScore, int attentionScore,
+			int delayedMemoryScore) {
+		return immediateMemoryScore + visuospatialScore + languageScore + attentionScore + delayedMemoryScore;
+	}
+
+	private void check(int[] values, Timepoint timepoint, Domain domain, int calculated, MismatchSink mismatches) {
+		int given = values[FIRST_GIVEN + domain.ordinal()];
+		if (calculated != given) {
+			metrics.mismatch();
+			mismatches.accept(new Mismatch(values[SUBJECT_ID], timepoint, domain, given, calculated));
+		}
+	}
+
+	private static void warn(String format, int subjectId) {
+		if (LOGGER.isLoggable(Level.WARNING)) {
+			LOGGER.warning(String.format(format, subjectId));
+		}
+	}
+}
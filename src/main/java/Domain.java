@@ -0,0 +1,56 @@
+/**
+ * An RBANS score that is crosschecked, in the order mismatches are reported for each row: the five domain index
+ * scores, each looked up in its norm table, followed by the Sum Index, which is their sum. The Total Scaled Score and
+ * subtest scores are not domains yet (see Crosschecker.UNCHECKED_COLUMNS).
+ */
+public enum Domain {
+	IMMEDIATE_MEMORY("Immediate Memory", "Immediate Memory", NormTableRegistry.IMMEDIATE_MEMORY),
+	VISUOSPATIAL("Visuospatial", "Visuospatial/Constructional", NormTableRegistry.VISUOSPATIAL),
+	LANGUAGE("Language", "Language", NormTableRegistry.LANGUAGE),
+	ATTENTION("Attention", "Attention", NormTableRegistry.ATTENTION),
+	DELAYED_MEMORY("Delayed Memory", "Delayed Memory", NormTableRegistry.DELAYED_MEMORY),
+	SUM_INDEX("Sum Index", "Sum Index", NormTableRegistry.NO_NORM_TABLE);
+
+	private final String label;
+	private final String givenColumn;
+	private final int normTable;
+
+	Domain(String label, String givenColumn, int normTable) {
+		this.label = label;
+		this.givenColumn = givenColumn;
+		this.normTable = normTable;
+	}
+
+	/**
+	 * @return The name shown to users, e.g. "Visuospatial"
+	 */
+	public String label() {
+		return label;
+	}
+
+	/**
+	 * @return The header of the column holding the given index score
+	 */
+	public String givenColumn() {
+		return givenColumn;
+	}
+
+	/**
+	 * @return The domain's test index in NormTableRegistry.TESTS, or NormTableRegistry.NO_NORM_TABLE for the Sum Index
+	 */
+	public int normTable() {
+		return normTable;
+	}
+
+	/**
+	 * @return Whether the score is looked up in a norm table, i.e. it is one of the five domain index scores
+	 */
+	public boolean hasNormTable() {
+		return normTable != NormTableRegistry.NO_NORM_TABLE;
+	}
+
+	@Override
+	public String toString() {
+		return label;
+	}
+}
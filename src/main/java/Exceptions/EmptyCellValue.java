@@ -1,11 +0,0 @@
-package Exceptions;
-
-public class EmptyCellValue extends Exception {
-	public EmptyCellValue() {
-		super();
-	}
-	
-	public EmptyCellValue(String message) {
-		super(message);
-	}
-}
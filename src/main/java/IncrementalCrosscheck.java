@@ -0,0 +1,300 @@
+import tech.tablesaw.api.Table;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Crosschecks the same scores file again and again, e.g. each time the user chooses "Revalidate", rescoring only the
+ * rows that changed. Each row is remembered by its Subject ID and timepoint along with a fingerprint of its raw and
+ * given scores; a row whose fingerprint is unchanged keeps the mismatches it had last time instead of being scored.
+ *
+ * A crosscheck stopped partway, e.g. cancelled, keeps the rows it got through; the rest are scored next time.
+ *
+ * Only scoring is saved this way: a changed file is still read and parsed in full, and every row fingerprinted, so a
+ * revalidation costs O(file) plus the scoring of the changed rows. A file that hasn't changed at all isn't read again:
+ * the caller stamps it (see FileStamp) before reading it, and skips the read when reuseIfUnchanged(...) finds the size
+ * and modification time still match, as make does. An edit that keeps both the same is not noticed.
+ *
+ * The fingerprints, mismatches, and file stamp can be saved to a cache file next to the scores file (see
+ * cacheFile(...)), so a later run of the program also only rescores what changed. The cache is ignored if the norm
+ * tables change.
+ */
+public class IncrementalCrosscheck {
+	public final static String CACHE_SUFFIX = ".rbans-cache";
+
+	private final static int CACHE_MAGIC = 0x52424352; // "RBCR"
+	// 2: rows are also checked against their Sum Index; 3: the file stamp is saved
+	private final static int CACHE_VERSION = 3;
+	private final static Timepoint[] TIMEPOINTS = Timepoint.values();
+	private final static Logger LOGGER = Logger.getLogger(IncrementalCrosscheck.class.getName());
+
+	/**
+	 * Identifies a row across revalidations. Occurrence tells apart rows that repeat a Subject ID and timepoint.
+	 * @param timepoint The row's timepoint, or null if it isn't one
+	 */
+	private record RowKey(int subjectId, Timepoint timepoint, int occurrence) {
+	}
+
+	/**
+	 * What is remembered about a row: its fingerprint and the mismatches it had when it was last scored
+	 */
+	private record ScoredRow(long fingerprint, List<Mismatch> mismatches) {
+	}
+
+	/**
+	 * A scores file's size and modification time, taken before it is read so a save during the read is noticed on
+	 * the next revalidation
+	 */
+	public record FileStamp(long size, long modifiedMicros) {
+		private final static FileStamp NONE = new FileStamp(-1, -1);
+
+		public static FileStamp of(Path scoresFile) throws IOException {
+			BasicFileAttributes attributes = Files.readAttributes(scoresFile, BasicFileAttributes.class);
+			return new FileStamp(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.MICROSECONDS));
+		}
+	}
+
+	private final Crosschecker crosschecker;
+	private final int normTableChecksum;
+	// In file order as of the last crosscheck
+	private Map<RowKey, ScoredRow> rows = new LinkedHashMap<>();
+	private int rowsRescored = 0;
+	// Of the file as of the last complete crosscheck
+	private FileStamp stamp = FileStamp.NONE;
+
+	/**
+	 * @param crosschecker Crosschecker that changed rows are scored with
+	 */
+	public IncrementalCrosscheck(Crosschecker crosschecker) {
+		this.crosschecker = crosschecker;
+		this.normTableChecksum = crosschecker.getScorer().getNormTables().checksum();
+	}
+
+	/**
+	 * @param scoresFile A scores file
+	 * @return The cache file kept next to it
+	 */
+	public static Path cacheFile(File scoresFile) {
+		return scoresFile.toPath().resolveSibling(scoresFile.getName() + CACHE_SUFFIX);
+	}
+
+	/**
+	 * Crosschecks a table, rescoring only rows that are new or changed since the last crosscheck. Rows no longer in
+	 * the table are forgotten along with their mismatches.
+	 * @param table A scores table that has all EXPECTED_HEADERS
+	 * @param rowChecked Run after each row, e.g. to advance a progress bar
+	 * @return The number of rows crosschecked
+	 */
+	public int crosscheck(Table table, Runnable rowChecked) {
+		List<String> headers = Crosschecker.columnNames(table);
+		int[] columns = Crosschecker.resolveColumns(headers);
+		int timepointColumn = headers.indexOf("Timepoint");
+
+		Map<RowKey, ScoredRow> previous = rows;
+		rows = new LinkedHashMap<>(Math.max(16, previous.size() * 4 / 3 + 1));
+		rowsRescored = 0;
+		stamp = FileStamp.NONE;
+		int rowCount = table.rowCount();
+		int[] values = new int[Crosschecker.SCORED_COLUMNS.length];
+		for (int r = 0; r < rowCount; r++) {
+			rowChecked.run();
+			Crosschecker.readValues(table, r, columns, values);
+			checkRow(previous, Crosschecker.timepoint(table, timepointColumn, r), values);
+		}
+		return rowCount;
+	}
+
+	/**
+	 * Crosschecks a scores file as it is read, rescoring only rows that are new or changed since the last crosscheck
+	 * @param reader A reader positioned before the first row of a file that has all EXPECTED_HEADERS
+	 * @param rowChecked Run after each row, e.g. to advance a progress bar
+	 * @return The number of rows crosschecked
+	 */
+	public long crosscheck(ScoreRowSource reader, Runnable rowChecked) throws IOException {
+		int[] columns = Crosschecker.resolveColumns(reader.headers());
+		int timepointColumn = reader.columnIndex("Timepoint");
+
+		Map<RowKey, ScoredRow> previous = rows;
+		rows = new LinkedHashMap<>(Math.max(16, previous.size() * 4 / 3 + 1));
+		rowsRescored = 0;
+		stamp = FileStamp.NONE;
+		long completions = 0;
+		int[] values = new int[Crosschecker.SCORED_COLUMNS.length];
+		while (reader.next()) {
+			completions++;
+			rowChecked.run();
+			for (int i = 0; i < columns.length; i++) {
+				values[i] = reader.getInt(columns[i]);
+			}
+			checkRow(previous, reader.getTimepoint(timepointColumn), values);
+		}
+		return completions;
+	}
+
+	private void checkRow(Map<RowKey, ScoredRow> previous, Timepoint timepoint, int[] values) {
+		int subjectId = values[Crosschecker.SUBJECT_ID];
+		RowKey key = new RowKey(subjectId, timepoint, 0);
+		// Repeated Subject ID and timepoint; these are rare, so counting up is cheap
+		for (int occurrence = 1; rows.containsKey(key); occurrence++) {
+			key = new RowKey(subjectId, timepoint, occurrence);
+		}
+
+		long fingerprint = fingerprint(timepoint, values);
+		ScoredRow scored = previous.get(key);
+		if (scored == null || scored.fingerprint() != fingerprint) {
+			List<Mismatch> mismatches = new ArrayList<>(0);
+			crosschecker.crosscheckRow(timepoint, values, mismatches::add);
+			scored = new ScoredRow(fingerprint, mismatches);
+			rowsRescored++;
+		}
+		rows.put(key, scored);
+	}
+
+	/**
+	 * 64-bit FNV-1a over the row's timepoint and scored columns
+	 */
+	private static long fingerprint(Timepoint timepoint, int[] values) {
+		long hash = 0xcbf29ce484222325L;
+		hash = (hash ^ ((timepoint == null) ? -1 : timepoint.ordinal())) * 0x100000001b3L;
+		for (int value : values) {
+			hash = (hash ^ value) * 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * @return Every mismatch as of the last crosscheck, in file order
+	 */
+	public List<Mismatch> getMismatches() {
+		List<Mismatch> mismatches = new ArrayList<>();
+		for (ScoredRow row : rows.values()) {
+			mismatches.addAll(row.mismatches());
+		}
+		return mismatches;
+	}
+
+	/**
+	 * @return The number of rows the last crosscheck actually scored
+	 */
+	public int getRowsRescored() {
+		return rowsRescored;
+	}
+
+	/**
+	 * @return The number of rows as of the last crosscheck
+	 */
+	public int getRowCount() {
+		return rows.size();
+	}
+
+	/**
+	 * Stands in for a crosscheck of a file that hasn't changed since the crosscheck marked by setFileStamp(...): the
+	 * rows and mismatches are kept as they are, with none rescored
+	 * @param current The scores file's stamp, taken just now
+	 * @return Whether the file is unchanged; if not, it has to be crosschecked
+	 */
+	public boolean reuseIfUnchanged(FileStamp current) {
+		if (stamp.equals(FileStamp.NONE) || !current.equals(stamp)) {
+			return false;
+		}
+		rowsRescored = 0;
+		return true;
+	}
+
+	/**
+	 * Marks the last crosscheck as covering the file as of a stamp. Call after a crosscheck completes, with the stamp
+	 * taken before the file was read; starting another crosscheck clears it.
+	 */
+	public void setFileStamp(FileStamp readStamp) {
+		stamp = readStamp;
+	}
+
+	/**
+	 * Loads a cache saved by save(...). A cache that is missing, unreadable, or made with other norm tables is
+	 * ignored, so every row is scored on the next crosscheck.
+	 * @param cacheFile A cache file, usually cacheFile(scoresFile)
+	 * @return Whether the cache was loaded
+	 */
+	public boolean load(Path cacheFile) {
+		if (!Files.isRegularFile(cacheFile)) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+			if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION || in.readInt() != normTableChecksum) {
+				return false;
+			}
+			FileStamp loadedStamp = new FileStamp(in.readLong(), in.readLong());
+			int count = in.readInt();
+			Map<RowKey, ScoredRow> loaded = new LinkedHashMap<>(Math.max(16, count * 4 / 3 + 1));
+			for (int i = 0; i < count; i++) {
+				int subjectId = in.readInt();
+				byte timepointIndex = in.readByte();
+				Timepoint timepoint = (timepointIndex < 0) ? null : TIMEPOINTS[timepointIndex];
+				RowKey key = new RowKey(subjectId, timepoint, in.readInt());
+				long fingerprint = in.readLong();
+				int mismatchCount = in.readUnsignedByte();
+				List<Mismatch> mismatches = new ArrayList<>(mismatchCount);
+				for (int m = 0; m < mismatchCount; m++) {
+					Domain domain = Domain.values()[in.readByte()];
+					mismatches.add(new Mismatch(subjectId, timepoint, domain, in.readInt(), in.readInt()));
+				}
+				loaded.put(key, new ScoredRow(fingerprint, mismatches));
+			}
+			rows = loaded;
+			stamp = loadedStamp;
+			return true;
+		} catch (EOFException | ArrayIndexOutOfBoundsException e) {
+			LOGGER.warning("Ignoring truncated or corrupt cache " + cacheFile);
+		} catch (IOException e) {
+			LOGGER.warning("Could not read cache " + cacheFile + ": " + e.getMessage());
+		}
+		return false;
+	}
+
+	/**
+	 * Saves the fingerprints and mismatches of the last crosscheck. The cache is written to a temporary file and
+	 * moved into place, so a crash never leaves a half-written cache behind.
+	 * @param cacheFile Where to save, usually cacheFile(scoresFile)
+	 */
+	public void save(Path cacheFile) throws IOException {
+		Path partial = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+			out.writeInt(CACHE_MAGIC);
+			out.writeInt(CACHE_VERSION);
+			out.writeInt(normTableChecksum);
+			out.writeLong(stamp.size());
+			out.writeLong(stamp.modifiedMicros());
+			out.writeInt(rows.size());
+			for (Map.Entry<RowKey, ScoredRow> row : rows.entrySet()) {
+				RowKey key = row.getKey();
+				out.writeInt(key.subjectId());
+				out.writeByte((key.timepoint() == null) ? -1 : key.timepoint().ordinal());
+				out.writeInt(key.occurrence());
+				out.writeLong(row.getValue().fingerprint());
+				List<Mismatch> mismatches = row.getValue().mismatches();
+				out.writeByte(mismatches.size());
+				for (Mismatch mismatch : mismatches) {
+					out.writeByte(mismatch.domain().ordinal());
+					out.writeInt(mismatch.given());
+					out.writeInt(mismatch.calculated());
+				}
+			}
+		}
+		Files.move(partial, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
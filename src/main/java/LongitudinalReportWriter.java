@@ -0,0 +1,135 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes one CSV line per subject from a SubjectIndex: how many rows the subject has at each timepoint, a flag for
+ * each missing or duplicate timepoint, and every calculated score at each timepoint with its change from Baseline.
+ * Subjects come out in the order they were first seen, straight from the index. Scores that couldn't be calculated
+ * are left empty. Rows with an unknown timepoint are flagged on their subject, and rows without a Subject ID are
+ * flagged on one last line for the file with an empty Subject ID.
+ */
+public class LongitudinalReportWriter implements Closeable {
+	private final static Timepoint[] TIMEPOINTS = Timepoint.values();
+	private final static Domain[] DOMAINS = Domain.values();
+
+	private final Writer out;
+	private int subjectCount = 0;
+	private int incompleteCount = 0;
+	private long invalidRowCount = 0;
+
+	public LongitudinalReportWriter(Path report) throws IOException {
+		this(Files.newBufferedWriter(report, StandardCharsets.UTF_8));
+	}
+
+	public LongitudinalReportWriter(Writer out) throws IOException {
+		this.out = (out instanceof BufferedWriter) ? out : new BufferedWriter(out);
+		StringBuilder header = new StringBuilder("File,Subject ID");
+		for (Timepoint timepoint : TIMEPOINTS) {
+			header.append(',').append(timepoint.label()).append(" Rows");
+		}
+		header.append(",Flags");
+		for (Domain domain : DOMAINS) {
+			for (Timepoint timepoint : TIMEPOINTS) {
+				header.append(',').append(domain.label()).append(' ').append(timepoint.label());
+			}
+			for (int t = 1; t < TIMEPOINTS.length; t++) {
+				header.append(',').append(domain.label()).append(' ').append(TIMEPOINTS[t].label()).append(" Change");
+			}
+		}
+		this.out.write(header.append('\n').toString());
+	}
+
+	public int getSubjectCount() {
+		return subjectCount;
+	}
+
+	/**
+	 * @return The number of subjects written with a missing, duplicate, or unknown timepoint
+	 */
+	public int getIncompleteCount() {
+		return incompleteCount;
+	}
+
+	/**
+	 * @return The number of rows flagged because they have no Subject ID or an unknown timepoint
+	 */
+	public long getInvalidRowCount() {
+		return invalidRowCount;
+	}
+
+	/**
+	 * Writes every subject in an index
+	 * @param sourceFile Name written in each report line
+	 * @param subjects The file's subjects
+	 */
+	public void write(String sourceFile, SubjectIndex subjects) throws IOException {
+		String file = MismatchReportWriter.escapeCsv(sourceFile);
+		StringBuilder line = new StringBuilder(256);
+		for (int entry = 0; entry < subjects.size(); entry++) {
+			line.setLength(0);
+			line.append(file).append(',').append(subjects.getSubjectId(entry));
+			for (Timepoint timepoint : TIMEPOINTS) {
+				line.append(',').append(subjects.getRowCount(entry, timepoint));
+			}
+			line.append(',');
+			if (subjects.isIncomplete(entry)) {
+				incompleteCount++;
+				appendFlags(line, subjects, entry);
+			}
+			for (Domain domain : DOMAINS) {
+				for (Timepoint timepoint : TIMEPOINTS) {
+					appendScore(line, subjects.getScore(entry, timepoint, domain));
+				}
+				for (int t = 1; t < TIMEPOINTS.length; t++) {
+					appendScore(line, subjects.getChange(entry, TIMEPOINTS[0], TIMEPOINTS[t], domain));
+				}
+			}
+			out.write(line.append('\n').toString());
+			subjectCount++;
+			invalidRowCount += subjects.getUnknownTimepointRows(entry);
+		}
+		int withoutSubjectId = subjects.getRowsWithoutSubjectId();
+		if (withoutSubjectId > 0) {
+			line.setLength(0);
+			line.append(file).append(',');
+			line.append(",".repeat(TIMEPOINTS.length)).append(',');
+			line.append(withoutSubjectId).append(" row(s) without a Subject ID");
+			line.append(",".repeat(DOMAINS.length * (TIMEPOINTS.length * 2 - 1)));
+			out.write(line.append('\n').toString());
+			invalidRowCount += withoutSubjectId;
+		}
+	}
+
+	private static void appendFlags(StringBuilder line, SubjectIndex subjects, int entry) {
+		boolean first = true;
+		for (Timepoint timepoint : TIMEPOINTS) {
+			int rows = subjects.getRowCount(entry, timepoint);
+			if (rows == 1) {
+				continue;
+			}
+			line.append(first ? "" : "; ").append((rows == 0) ? "missing " : "duplicate ").append(timepoint.label());
+			first = false;
+		}
+		int unknown = subjects.getUnknownTimepointRows(entry);
+		if (unknown > 0) {
+			line.append(first ? "" : "; ").append(unknown).append(" row(s) with an unknown timepoint");
+		}
+	}
+
+	private static void appendScore(StringBuilder line, int score) {
+		line.append(',');
+		if (score != SubjectIndex.NOT_SCORED) {
+			line.append(score);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
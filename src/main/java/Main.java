@@ -1,40 +1,34 @@
-import Exceptions.EmptyCellValue;
-import Exceptions.FileIsDirectoryException;
-import Exceptions.FileReadPermissionException;
-import Exceptions.WrongFileExtension;
-import tech.tablesaw.api.IntColumn;
-import tech.tablesaw.api.Row;
 import tech.tablesaw.api.Table;
-import tech.tablesaw.columns.Column;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.io.*;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class Main {
-	private final static String[] EXPECTED_HEADERS = {"Subject ID", "Group", "Age", "Timepoint", "List Learning",
-			"Figure Copy", "Line Orientation", "Picture", "Semantic Fluency", "Digit Span", "Coding", "List Recall",
-			"List Recognition", "Story Recall", "Figure Recall", "Immediate Memory", "Visuospatial/Constructional",
-			"Language", "Attention", "Delayed Memory", "Sum Index", "Total Scaled Score", "List Learning SS",
-			"Story Memory SS", "Figure Copy SS", "Line Orientation PG", "Picture Naming PG", "Semantic Fluency SS",
-			"Digit Span SS", "Coding SS", "List Recall PG", "List Recognition PG", "Story Recall SS",
-			"Figure Recall SS"};
+	private final static Logger LOGGER = Logger.getLogger(Main.class.getName());
 	
-	private final static String[] TESTS = {"attention", "language", "visuospatial", "delayed-memory", "immediate-memory"};
-	private final static String[] AGE_RANGES = {"20-39", "40-49", "50-59", "60-69"};
-	private final static String[] TEST_STAGES = {"baseline", "mid", "post"};
+	private final static String[] EXPECTED_HEADERS = Crosschecker.EXPECTED_HEADERS;
+	
+	// Every norm table is read once up front instead of once per subject and domain
+	private final static Crosschecker CROSSCHECKER = new Crosschecker(new RbansScorer(loadNormTables()));
 	
 	private final static String WELCOME_MESSAGE = "Welcome to RBANS Crosschecker! Please select the file used to hold subjects' test scores.";
 	private final static String FILE_PATH_PROMPT = "Enter the file path of your RBANS scores";
 	
-	private final static String WRONG_FILE_PATH = "The file does not exist!";
-	private final static String FILE_NOT_READABLE = "Cannot read file -- check its permissions!";
-	private final static String FILE_IS_DIRECTORY = "A folder was selected!";
-	private final static String WRONG_FILE_EXTENSION = "Make sure to select a file that ends with \".csv\"!";
+	private final static String[] SCORES_FILE_EXTENSIONS = {"csv", "xlsx"};
+	
 	private final static String INCORRECT_HEADERS = "Some headers are not present!";
 	
 	public static void main(String[] args) {
@@ -43,30 +37,45 @@ public class Main {
 		(2) Prompt for file path
 		(3) Print each issue
 		 */
+		AsyncLogHandler.install();
 		
-		// Setup the filechooser to only accept .csv files
+		// Setup the filechooser to only accept .csv and .xlsx files
 		JFileChooser fileChooser = new JFileChooser(getLastFileLocation());
 		FileNameExtensionFilter filter = new FileNameExtensionFilter(
-				"CSV", "csv");
+				"CSV or Excel workbook", SCORES_FILE_EXTENSIONS);
 		fileChooser.setFileFilter(filter);
+		File rbansScoresFile = null; // File that has all participants' scores
+		IncrementalCrosscheck incremental = null; // Remembers rbansScoresFile's rows between revalidations
+		boolean revalidate = false;
+		// What the user decided about each mismatch, kept across revalidations of the same file
+		Map<MismatchTableModel.Key, MismatchTableModel.Resolution> resolutions = new HashMap<>();
 		do {
 			int optionPressed; // the int returned by the following windows
-			optionPressed = JOptionPane.showConfirmDialog(null, WELCOME_MESSAGE, null, JOptionPane.OK_CANCEL_OPTION);
-			if (optionPressed == JOptionPane.CANCEL_OPTION || optionPressed == JOptionPane.CLOSED_OPTION) {
-				return;
-			}
-			
-			optionPressed = fileChooser.showOpenDialog(null);
-			if (optionPressed == JFileChooser.CANCEL_OPTION) {
-				continue;
+			if (!revalidate) {
+				optionPressed = JOptionPane.showConfirmDialog(null, WELCOME_MESSAGE, null, JOptionPane.OK_CANCEL_OPTION);
+				if (optionPressed == JOptionPane.CANCEL_OPTION || optionPressed == JOptionPane.CLOSED_OPTION) {
+					return;
+				}
+				
+				optionPressed = fileChooser.showOpenDialog(null);
+				if (optionPressed == JFileChooser.CANCEL_OPTION) {
+					continue;
+				}
+				
+				File chosen = fileChooser.getSelectedFile();
+				if (!chosen.equals(rbansScoresFile)) {
+					// Choosing the same file again, e.g. after cancelling, keeps the rows checked so far
+					incremental = null;
+					resolutions.clear();
+				}
+				rbansScoresFile = chosen;
 			}
-			
-			File rbansScoresFile = fileChooser.getSelectedFile(); // File that has all participants' scores
+			revalidate = false;
 			// Loop until the file is accessible
 			while (true) {
 				try {
 					// Check that the file exists, is readable, etc.
-					validateFile(rbansScoresFile, "csv");
+					Crosschecker.validateFile(rbansScoresFile, SCORES_FILE_EXTENSIONS);
 				} catch (IOException e) {
 					JOptionPane.showMessageDialog(null, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
 					continue;
@@ -76,94 +85,83 @@ public class Main {
 				break;
 			}
 			
-			// Get scores table
-			Table table = Table.read().csv(rbansScoresFile);
-			// Get all column names
-			ArrayList<String> columnNames = new ArrayList<>();
-			for (Column<?> column : table.columnArray()) {
-				columnNames.add(column.name());
+			Path cacheFile = IncrementalCrosscheck.cacheFile(rbansScoresFile);
+			if (incremental == null) {
+				incremental = new IncrementalCrosscheck(CROSSCHECKER);
+				incremental.load(cacheFile);
 			}
-			
-			// Check that all expected headers are present
-			ArrayList<String> missingColumns = hasCorrectCsvHeaders(EXPECTED_HEADERS, columnNames);
-			if (!missingColumns.isEmpty()) {
-				// TODO: Change to getting back a list of missing columns
-				System.out.println(INCORRECT_HEADERS);
-				System.out.println(Arrays.toString(missingColumns.toArray()));
-				continue; // Loop back to beginning to select file
+			IncrementalCrosscheck checker = incremental;
+			IncrementalCrosscheck.FileStamp stamp;
+			try {
+				// Taken before reading, so a save during the read is picked up next time
+				stamp = IncrementalCrosscheck.FileStamp.of(rbansScoresFile.toPath());
+			} catch (IOException e) {
+				JOptionPane.showMessageDialog(null, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+				continue;
 			}
-			
-			// File and table passed all checks
-			// For each row, calculate their scores and crosscheck
-			ArrayList<String> mismatches = new ArrayList<>();
-			ProgressBar progressBar = new ProgressBar(table.rowCount());
-			System.out.printf("Row Count = %d\n", table.rowCount());
-			int completions = 0;
-			for (Row row : table) {
-				completions++;
-				progressBar.updateProgress();
-				System.out.printf("Subject %d\n", row.getInt("Subject ID"));
-				String testStage = row.getString("Timepoint");
-				String ageRange = calculateRBANSAgeRange(row.getInt("Age"));
-				
-				try {
-					int immediateMemoryScore = calculateImmediateMemoryScore(testStage, ageRange, row.getInt("Story Memory"), row.getInt("List Learning"));
-					int visuospatialScore = calculateVisuospatialScore(testStage, ageRange, row.getInt("Line Orientation"), row.getInt("Figure Copy"));
-					int languageScore = calculateLanguageScore(testStage, ageRange, row.getInt("Picture"), row.getInt("Semantic Fluency"));
-					int attentionScore = calculateAttentionScore(testStage, ageRange, row.getInt("Digit Span"), row.getInt("Coding"));
-					int delayedMemoryScore = calculateDelayedMemoryScore(testStage, ageRange, row.getInt("List Recognition"),
-							row.getInt("List Recall"),
-							row.getInt("Story Recall"), // TODO: Verify
-							row.getInt("Figure Recall"));
-					// Check if scores match
-					if (immediateMemoryScore != row.getInt("Immediate Memory")) {
-						String errorMessage = String.format("Subject %d - Immediate Memory - Given: %d - Calculated: %d\n",
-								row.getInt("Subject ID"), row.getInt("Immediate Memory"), immediateMemoryScore);
-						mismatches.add(errorMessage);
-					}
-					if (visuospatialScore != row.getInt("Visuospatial/Constructional")) {
-						String errorMessage = String.format("Subject %d - Visuospatial - Given: %d - Calculated: %d\n",
-								row.getInt("Subject ID"), row.getInt("Visuospatial/Constructional"), visuospatialScore);
-						mismatches.add(errorMessage);
-					}
-					if (languageScore != row.getInt("Language")) {
-						String errorMessage = String.format("Subject %d - Language - Given: %d - Calculated: %d\n",
-								row.getInt("Subject ID"), row.getInt("Language"), languageScore);
-						mismatches.add(errorMessage);
-					}
-					if (attentionScore != row.getInt("Attention")) {
-						String errorMessage = String.format("Subject %d - Attention - Given: %d - Calculated: %d\n",
-								row.getInt("Subject ID"), row.getInt("Attention"), attentionScore);
-						mismatches.add(errorMessage);
-					}
-					if (delayedMemoryScore != row.getInt("Delayed Memory")) {
-						String errorMessage = String.format("Subject %d - Delayed Memory - Given: %d - Calculated: %d\n",
-								row.getInt("Subject ID"), row.getInt("Delayed Memory"), delayedMemoryScore);
-						mismatches.add(errorMessage);
+			Long completions;
+			CrosscheckMetrics.shared().reset();
+			if (incremental.reuseIfUnchanged(stamp)) {
+				// Not saved since the last check; its mismatches still hold, so don't read the file at all
+				LOGGER.info(rbansScoresFile + " is unchanged since the last check");
+				completions = (long) incremental.getRowCount();
+			} else if (rbansScoresFile.getName().toLowerCase(Locale.ROOT).endsWith(".xlsx")) {
+				// Workbooks are read a row at a time straight from the sheet
+				try (ScoreRowSource workbook = ScoreRowSource.open(rbansScoresFile.toPath())) {
+					ArrayList<String> missingColumns = Crosschecker.hasCorrectCsvHeaders(EXPECTED_HEADERS, workbook.headers());
+					if (!missingColumns.isEmpty()) {
+						LOGGER.warning(INCORRECT_HEADERS + " " + Arrays.toString(missingColumns.toArray()));
+						continue; // Loop back to beginning to select file
 					}
-				} catch (EmptyCellValue e) {
-					System.err.printf("Subject %d has an empty cell value\n", row.getInt("Subject ID"));
-				} catch (IndexOutOfBoundsException e) {
-					System.err.println(e.getMessage());
-					e.printStackTrace();
+					completions = runInBackground(rowScored -> checker.crosscheck(workbook, rowScored), -1);
+				} catch (IOException e) {
+					JOptionPane.showMessageDialog(null, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+					continue;
 				}
+			} else {
+				// Get scores table
+				Table table = Table.read().csv(rbansScoresFile);
+				// Get all column names
+				ArrayList<String> columnNames = Crosschecker.columnNames(table);
+				
+				// Check that all expected headers are present
+				ArrayList<String> missingColumns = Crosschecker.hasCorrectCsvHeaders(EXPECTED_HEADERS, columnNames);
+				if (!missingColumns.isEmpty()) {
+					// TODO: Change to getting back a list of missing columns
+					LOGGER.warning(INCORRECT_HEADERS + " " + Arrays.toString(missingColumns.toArray()));
+					continue; // Loop back to beginning to select file
+				}
+				
+				// File and table passed all checks
+				// For each new or changed row, calculate their scores and crosscheck
+				LOGGER.info(String.format("Row Count = %d", table.rowCount()));
+				completions = runInBackground(rowScored -> checker.crosscheck(table, rowScored), table.rowCount());
+			}
+			CrosscheckMetrics.shared().finish();
+			if (completions == null) {
+				continue; // Cancelled or failed; loop back to beginning to select file
 			}
-			System.out.printf("Completions: %d\n", completions);
-			JOptionPane.showMessageDialog(null, "Complete!");
+			incremental.setFileStamp(stamp);
+			LOGGER.info(String.format("Completions: %d (%d rescored)", completions, incremental.getRowsRescored()));
+			try {
+				incremental.save(cacheFile);
+			} catch (IOException e) {
+				LOGGER.warning("Could not save " + cacheFile + ": " + e.getMessage());
+			}
+			List<Mismatch> mismatches = incremental.getMismatches();
+			LOGGER.info(CrosscheckMetrics.shared().summary());
 			
-			// Display each error message to the user
-			String[] options = {"Given is correct", "Fixed in CSV"};
-			for (int i = 0; i < mismatches.size(); i++) {
-				JOptionPane.showOptionDialog(null,
-						mismatches.get(i),
-						String.format("Mismatch (%d/%d)", i + 1, mismatches.size()),
-						JOptionPane.OK_CANCEL_OPTION,
-						JOptionPane.ERROR_MESSAGE,
-						null,
-						options,
-						options[0]);
+			// List every mismatch in one window; the user can sort, filter and resolve them before moving on
+			MismatchBrowser browser = MismatchBrowser.open(rbansScoresFile.getName(), mismatches, resolutions);
+			browser.showStatus(String.format("Complete! %d mismatch(es) in %d row(s). %s", mismatches.size(), completions,
+					Crosschecker.UNCHECKED_NOTICE));
+			try {
+				browser.awaitClose();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
 			}
-			options = new String[] {"Revalidate", "Quit"};
+			String[] options = {"Revalidate", "Watch for changes", "Correct the file", "Quit"};
 			optionPressed = JOptionPane.showOptionDialog(null,
 					"Make sure to save your changes!",
 					"Revalidate?",
@@ -173,6 +171,12 @@ public class Main {
 					options,
 					options[0]);
 			if (optionPressed == 0) { // Revalidate?
+				revalidate = true;
+				continue;
+			} else if (optionPressed == 1) { // Watch?
+				watch(rbansScoresFile, incremental, mismatches, resolutions);
+			} else if (optionPressed == 2) { // Correct?
+				revalidate = correctFile(rbansScoresFile, resolutions);
 				continue;
 			}
 			JOptionPane.showMessageDialog(null, "Goodbye!");
@@ -181,122 +185,127 @@ public class Main {
 	}
 	
 	/**
-	 * Ensures the file is a file that can be read, is not a directory, and has the correct extension
-	 * @param file A file to be read
-	 * @throws IOException
+	 * Replaces every mismatched index score in a scores CSV with the calculated one, except those the user said are
+	 * correct as given, and lists the changed cells in an audit file next to it
+	 * @param scoresFile The file to correct in place
+	 * @param resolutions What the user decided about each mismatch
+	 * @return Whether the file was corrected
 	 */
-	private static void validateFile(File file, String expectedExtension) throws IOException {
-		if (!file.exists()) {
-			// File does not exist
-			throw new FileNotFoundException(WRONG_FILE_PATH);
-		} else if (!file.canRead()) {
-			// Cannot read file
-			throw new FileReadPermissionException(FILE_NOT_READABLE);
-		} else if (file.isDirectory()) {
-			// Can't read a directory
-			throw new FileIsDirectoryException(FILE_IS_DIRECTORY);
-		} else if (!file.getName().endsWith(expectedExtension)) {
-			// Can't read .xlsx or other types of files... yet
-			throw new WrongFileExtension(WRONG_FILE_EXTENSION);
+	private static boolean correctFile(File scoresFile,
+			Map<MismatchTableModel.Key, MismatchTableModel.Resolution> resolutions) {
+		if (!scoresFile.getName().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+			JOptionPane.showMessageDialog(null, "Only CSV files can be corrected.", "Error", JOptionPane.ERROR_MESSAGE);
+			return false;
 		}
-	}
-	
-	/**
-	 * Ensures that all the expected headers are in a given formatted file
-	 * @param expectedHeaders Headers needed in order to us scoring tables
-	 * @param givenHeaders Headers in a character-delimited file
-	 * @return A List<String> that contains the names of all missing files
-	 */
-	private static ArrayList<String> hasCorrectCsvHeaders(String[] expectedHeaders, List<String> givenHeaders) {
-		ArrayList<String> missingColumns = new ArrayList<>();
-		for (int i = 0; i < expectedHeaders.length; i++) {
-			if (!givenHeaders.contains(expectedHeaders[i])) {
-				missingColumns.add(expectedHeaders[i]);
-			}
+		Path scores = scoresFile.toPath();
+		Path audit = ScoreFileCorrector.auditFile(scores);
+		int optionPressed = JOptionPane.showConfirmDialog(null,
+				String.format("Overwrite %s with the calculated scores? Every change will be listed in %s.",
+						scoresFile.getName(), audit.getFileName()),
+				"Correct the file?", JOptionPane.OK_CANCEL_OPTION);
+		if (optionPressed != JOptionPane.OK_OPTION) {
+			return false;
 		}
-		return missingColumns;
-	}
-	
-	private static String calculateRBANSAgeRange(int age) {
-		for (String ageRange : AGE_RANGES) {
-			// Find the dash
-			int dashIndex = ageRange.indexOf('-');
-			// Get lower and upper bounds of age range
-			int lowerBound = Integer.parseInt(ageRange.substring(0, dashIndex));
-			int upperBound = Integer.parseInt(ageRange.substring(dashIndex + 1));
-			
-			if (age >= lowerBound && age <= upperBound) {
-				return ageRange;
-			}
-		}
-		throw new IllegalArgumentException("Age is not within RBANS age range");
-	}
-	
-	private static int calculateImmediateMemoryScore(String testStage, String ageRange, int storyMemoryScore, int listLearningScore) throws EmptyCellValue {
-		System.out.printf("Story Memory: %d | List Learning: %d\n", storyMemoryScore, listLearningScore);
-		if (storyMemoryScore < 0 || listLearningScore < 0) {
-			throw new EmptyCellValue();
+		// The corrector meets mismatches in file order, as the browser listed them
+		MismatchTableModel.KeyCounter keys = new MismatchTableModel.KeyCounter();
+		try {
+			int corrections = new ScoreFileCorrector(CROSSCHECKER).correct(scores, scores, audit,
+					mismatch -> resolutions.get(keys.next(mismatch))
+							!= MismatchTableModel.Resolution.GIVEN_IS_CORRECT);
+			JOptionPane.showMessageDialog(null, String.format("Corrected %d score(s).", corrections));
+			return true;
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Could not correct " + scoresFile, e);
+			JOptionPane.showMessageDialog(null, "Could not correct the file: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+			return false;
 		}
-		String fileName = String.format("src/main/resources/%s/immediate-memory/%s-%s-immediate-memory.csv",
-				testStage, ageRange, testStage);
-		Table immediateMemoryTable = Table.read().csv(fileName);
-		System.out.printf("Returning: %d\n", (int) immediateMemoryTable.column(String.valueOf(storyMemoryScore)).get(listLearningScore));
-		return (int) immediateMemoryTable.column(String.valueOf(storyMemoryScore)).get(listLearningScore);
 	}
 	
-	private static int calculateVisuospatialScore(String testStage, String ageRange, int lineOrientationScore, int figureCopyScore) throws EmptyCellValue {
-		System.out.printf("Line Orientation: %d | Figure Copy: %d\n", lineOrientationScore, figureCopyScore);
-		if (lineOrientationScore < 0 || figureCopyScore < 0) {
-			throw new EmptyCellValue();
+	/**
+	 * Runs a crosscheck on a background thread while a progress bar tracks it, waiting for it to finish. A cancelled
+	 * crosscheck has stopped reading by the time this returns, so the caller can close what it reads from.
+	 * @param task The crosscheck
+	 * @param totalRows Rows the crosscheck will score, or -1 if unknown
+	 * @return The number of rows crosschecked, or null if the user cancelled or the crosscheck failed
+	 */
+	private static Long runInBackground(CrosscheckWorker.Task task, long totalRows) {
+		CrosscheckWorker worker = new CrosscheckWorker(task, totalRows);
+		worker.execute();
+		try {
+			return worker.get();
+		} catch (CancellationException e) {
+			worker.awaitStopped();
+			JOptionPane.showMessageDialog(null, "Crosscheck cancelled.");
+		} catch (ExecutionException e) {
+			LOGGER.log(Level.WARNING, "Crosscheck failed", e.getCause());
+			JOptionPane.showMessageDialog(null, e.getCause().getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+		} catch (InterruptedException e) {
+			worker.cancel(false);
+			worker.awaitStopped();
+			Thread.currentThread().interrupt();
 		}
-		String fileName = String.format("src/main/resources/%s/visuospatial/%s-%s-visuospatial.csv",
-				testStage, ageRange, testStage);
-		Table visuospatialTable = Table.read().csv(fileName);
-		System.out.printf("Returning: %d\n", (int) visuospatialTable.column(String.valueOf(lineOrientationScore)).get(figureCopyScore));
-		return (int) visuospatialTable.column(String.valueOf(lineOrientationScore)).get(figureCopyScore);
+		return null;
 	}
 	
-	private static int calculateLanguageScore(String testStage, String ageRange, int pictureNamingScore, int semanticFluencyScore) throws EmptyCellValue {
-		System.out.printf("Picture: %d | Semantic Fluency: %d\n", pictureNamingScore, semanticFluencyScore);
-		if (pictureNamingScore < 0 || semanticFluencyScore < 0) {
-			throw new EmptyCellValue();
+	/**
+	 * Rechecks a scores file each time it is saved until the user stops watching
+	 * @param scoresFile The file to watch
+	 * @param incremental Holds the file's rows as of the last check
+	 * @param mismatches The file's mismatches as of the last check
+	 * @param resolutions What the user decided about each mismatch so far
+	 */
+	private static void watch(File scoresFile, IncrementalCrosscheck incremental, List<Mismatch> mismatches,
+			Map<MismatchTableModel.Key, MismatchTableModel.Resolution> resolutions) {
+		MismatchBrowser window = MismatchBrowser.open(scoresFile.getName(), mismatches, resolutions);
+		window.showStatus(String.format("%d mismatch(es). Save the file to recheck it.", mismatches.size()));
+		Path cacheFile = IncrementalCrosscheck.cacheFile(scoresFile);
+		// Rechecks run one at a time on the watcher's thread, which is the only one using incremental while watching
+		ScoreFileWatcher watcher;
+		try {
+			watcher = new ScoreFileWatcher(scoresFile.toPath(), ScoreFileWatcher.DEFAULT_DEBOUNCE_MILLIS, changed -> {
+				try {
+					IncrementalCrosscheck.FileStamp stamp = IncrementalCrosscheck.FileStamp.of(changed);
+					if (incremental.reuseIfUnchanged(stamp)) {
+						return; // e.g. an event for a save that was already checked
+					}
+					try (ScoreRowSource reader = ScoreRowSource.open(changed)) {
+						List<String> missingColumns = Crosschecker.hasCorrectCsvHeaders(EXPECTED_HEADERS, reader.headers());
+						if (!missingColumns.isEmpty()) {
+							window.showStatus(INCORRECT_HEADERS + " " + Arrays.toString(missingColumns.toArray()));
+							return;
+						}
+						incremental.crosscheck(reader, () -> {});
+					}
+					incremental.setFileStamp(stamp);
+					incremental.save(cacheFile);
+				} catch (IOException e) {
+					window.showStatus("Could not read the file: " + e.getMessage());
+					return;
+				}
+				List<Mismatch> current = incremental.getMismatches();
+				window.showMismatches(current, String.format("%d mismatch(es), %d row(s) rescored at %tT",
+						current.size(), incremental.getRowsRescored(), System.currentTimeMillis()));
+			});
+		} catch (IOException e) {
+			window.dispose();
+			JOptionPane.showMessageDialog(null, "Could not watch the file: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+			return;
 		}
-		String fileName = String.format("src/main/resources/%s/language/%s-%s-language.csv",
-				testStage, ageRange, testStage);
-		Table languageTable = Table.read().csv(fileName);
-		// TODO: Convert last column "9-10" to two columns
-		IntColumn column = languageTable.intColumn((pictureNamingScore >= 9) ? "9-10" : String.valueOf(pictureNamingScore));
-		System.out.printf("Returning: %d\n", column.getInt((semanticFluencyScore >= 36) ? 36 : semanticFluencyScore));
-		return column.getInt((semanticFluencyScore >= 36) ? 36 : semanticFluencyScore);
-	}
-	
-	private static int calculateAttentionScore(String testStage, String ageRange, int digitSpanScore, int codingScore) throws EmptyCellValue {
-		System.out.printf("ATTENTION: Digit Span: %d | Coding: %d\n", digitSpanScore, codingScore);
-		if (digitSpanScore < 0 || codingScore < 0) {
-			throw new EmptyCellValue();
+		try {
+			window.awaitClose();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			watcher.close();
 		}
-		String fileName = String.format("src/main/resources/%s/attention/%s-%s-attention.csv",
-				testStage, ageRange, testStage);
-		Table attentionTable = Table.read().csv(fileName);
-		System.out.printf("Returning: %d\n", (int) attentionTable.column(String.valueOf(digitSpanScore)).get(codingScore));
-		return (int) attentionTable.column(String.valueOf(digitSpanScore)).get(codingScore);
 	}
 	
-	private static int calculateDelayedMemoryScore(String testStage, String ageRange, int listRecognitionScore, int listRecallScore, int storyRecallScore, int figureRecallScore) throws EmptyCellValue {
-		System.out.printf("DELAYED MEMORY: List Recognition: %d | List Recall: %d | Story Recall: %d | Figure Recall: %d\n", listRecognitionScore, listRecallScore, storyRecallScore, figureRecallScore);
-		if (listRecognitionScore < 0 || listRecallScore < 0 || storyRecallScore < 0 || figureRecallScore < 0) {
-			throw new EmptyCellValue();
-		}
-		String fileName = String.format("src/main/resources/%s/delayed-memory/%s-%s-delayed-memory.csv",
-				testStage, ageRange, testStage);
-		Table delayedMemoryTable = Table.read().csv(fileName);
-		// TODO: Convert 19-20 column into two
-		if (listRecognitionScore >= 19) {
-			System.out.printf("Returning: %d\n", (int) delayedMemoryTable.column("19-20").get(listRecallScore + storyRecallScore + figureRecallScore));
-			return (int) delayedMemoryTable.column("19-20").get(listRecallScore + storyRecallScore + figureRecallScore);
+	private static NormTableRegistry loadNormTables() {
+		try {
+			return NormTableRegistry.openDefault();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not load norm tables", e);
 		}
-		System.out.printf("Returning: %d\n", (int) delayedMemoryTable.column(String.valueOf(listRecognitionScore)).get(listRecallScore + storyRecallScore + figureRecallScore));
-		return (int) delayedMemoryTable.column(String.valueOf(listRecognitionScore)).get(listRecallScore + storyRecallScore + figureRecallScore);
 	}
 	
 	private static String getLastFileLocation() {
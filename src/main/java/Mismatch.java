@@ -0,0 +1,17 @@
+/**
+ * A domain index score or Sum Index in the scores file that does not match the score calculated from the subject's raw
+ * scores.
+ * Holds only ids and numbers; the message is built when the mismatch is displayed or written.
+ *
+ * @param subjectId The row's "Subject ID"
+ * @param timepoint The row's "Timepoint"
+ * @param domain The domain whose index score disagrees, or SUM_INDEX
+ * @param given The score written in the scores file
+ * @param calculated The score calculated from the norm tables
+ */
+public record Mismatch(int subjectId, Timepoint timepoint, Domain domain, int given, int calculated) {
+	@Override
+	public String toString() {
+		return String.format("Subject %d - %s - Given: %d - Calculated: %d\n", subjectId, domain.label(), given, calculated);
+	}
+}
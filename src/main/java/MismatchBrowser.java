@@ -0,0 +1,186 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * One window listing every mismatch, in place of a dialog per mismatch. The table only renders the rows on screen, so
+ * it opens instantly however many mismatches there are. Mismatches can be sorted by any column, filtered by domain,
+ * timepoint, Subject ID, or resolution, and marked "Given is correct" or "Fixed in CSV".
+ */
+public class MismatchBrowser extends JFrame {
+	private final static String ALL = "All";
+
+	private final MismatchTableModel model;
+	private final TableRowSorter<MismatchTableModel> sorter;
+	private final JComboBox<Object> domainFilter = new JComboBox<>();
+	private final JComboBox<Object> timepointFilter = new JComboBox<>();
+	private final JComboBox<Object> resolutionFilter = new JComboBox<>();
+	private final JTextField subjectFilter = new JTextField(8);
+	private final JLabel count = new JLabel();
+	private final JLabel status = new JLabel(" ");
+	private final CountDownLatch closed = new CountDownLatch(1);
+
+	/**
+	 * Opens the browser. Must be called on the event dispatch thread (see open(...)).
+	 * @param title Window title
+	 * @param mismatches Mismatches to list
+	 * @param resolutions Resolutions chosen so far, updated as the user chooses more
+	 */
+	public MismatchBrowser(String title, List<Mismatch> mismatches,
+			Map<MismatchTableModel.Key, MismatchTableModel.Resolution> resolutions) {
+		setTitle(title);
+		setSize(760, 520);
+		setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+		setLocationRelativeTo(null);
+		setLayout(new BorderLayout());
+
+		model = new MismatchTableModel(mismatches, resolutions);
+		sorter = new TableRowSorter<>(model);
+		// Don't re-sort after every resolution change; the row would jump away from the user
+		sorter.setSortsOnUpdates(false);
+		JTable table = new JTable(model);
+		table.setRowSorter(sorter);
+		table.setFillsViewportHeight(true);
+		table.setDefaultEditor(MismatchTableModel.Resolution.class,
+				new DefaultCellEditor(new JComboBox<>(MismatchTableModel.Resolution.values())));
+		add(new JScrollPane(table), BorderLayout.CENTER);
+
+		JPanel filters = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		fillFilter(domainFilter, Domain.values());
+		fillFilter(timepointFilter, Timepoint.values());
+		fillFilter(resolutionFilter, MismatchTableModel.Resolution.values());
+		filters.add(new JLabel("Domain"));
+		filters.add(domainFilter);
+		filters.add(new JLabel("Timepoint"));
+		filters.add(timepointFilter);
+		filters.add(new JLabel("Subject ID"));
+		filters.add(subjectFilter);
+		filters.add(new JLabel("Resolution"));
+		filters.add(resolutionFilter);
+		filters.add(count);
+		add(filters, BorderLayout.NORTH);
+		subjectFilter.getDocument().addDocumentListener(new DocumentListener() {
+			@Override
+			public void insertUpdate(DocumentEvent e) {
+				applyFilters();
+			}
+
+			@Override
+			public void removeUpdate(DocumentEvent e) {
+				applyFilters();
+			}
+
+			@Override
+			public void changedUpdate(DocumentEvent e) {
+				applyFilters();
+			}
+		});
+
+		JPanel bottom = new JPanel(new BorderLayout());
+		status.setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 4));
+		bottom.add(status, BorderLayout.CENTER);
+		JButton done = new JButton("Done");
+		done.addActionListener(e -> dispose());
+		bottom.add(done, BorderLayout.EAST);
+		add(bottom, BorderLayout.SOUTH);
+
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosed(WindowEvent e) {
+				closed.countDown();
+			}
+		});
+		updateCount();
+		setVisible(true);
+	}
+
+	/**
+	 * Opens a browser from any thread
+	 * @return The browser, once it is showing
+	 */
+	public static MismatchBrowser open(String title, List<Mismatch> mismatches,
+			Map<MismatchTableModel.Key, MismatchTableModel.Resolution> resolutions) {
+		if (SwingUtilities.isEventDispatchThread()) {
+			return new MismatchBrowser(title, mismatches, resolutions);
+		}
+		MismatchBrowser[] browser = new MismatchBrowser[1];
+		try {
+			SwingUtilities.invokeAndWait(() -> browser[0] = new MismatchBrowser(title, mismatches, resolutions));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (java.lang.reflect.InvocationTargetException e) {
+			throw new IllegalStateException("Could not open mismatch browser", e.getCause());
+		}
+		return browser[0];
+	}
+
+	private void fillFilter(JComboBox<Object> filter, Object[] values) {
+		filter.addItem(ALL);
+		for (Object value : values) {
+			filter.addItem(value);
+		}
+		filter.addActionListener(e -> applyFilters());
+	}
+
+	private void applyFilters() {
+		Object domain = domainFilter.getSelectedItem();
+		Object timepoint = timepointFilter.getSelectedItem();
+		Object resolution = resolutionFilter.getSelectedItem();
+		String subject = subjectFilter.getText().trim();
+		if (domain == ALL && timepoint == ALL && resolution == ALL && subject.isEmpty()) {
+			sorter.setRowFilter(null);
+		} else {
+			// Reads the records directly instead of going through the model's boxed cell values
+			sorter.setRowFilter(new RowFilter<>() {
+				@Override
+				public boolean include(Entry<? extends MismatchTableModel, ? extends Integer> entry) {
+					int row = entry.getIdentifier();
+					Mismatch mismatch = model.getMismatch(row);
+					return (domain == ALL || mismatch.domain() == domain)
+							&& (timepoint == ALL || mismatch.timepoint() == timepoint)
+							&& (resolution == ALL || model.getResolution(row) == resolution)
+							&& (subject.isEmpty() || Integer.toString(mismatch.subjectId()).startsWith(subject));
+				}
+			});
+		}
+		updateCount();
+	}
+
+	private void updateCount() {
+		count.setText(String.format("Showing %,d of %,d", sorter.getViewRowCount(), model.getRowCount()));
+	}
+
+	/**
+	 * Replaces the listed mismatches, keeping the filters and sort. Safe to call from any thread.
+	 * @param mismatches Every mismatch as of the last check
+	 * @param message Describes the last check
+	 */
+	public void showMismatches(List<Mismatch> mismatches, String message) {
+		SwingUtilities.invokeLater(() -> {
+			model.setMismatches(mismatches);
+			updateCount();
+			status.setText(message);
+		});
+	}
+
+	/**
+	 * Shows a message without changing the listed mismatches. Safe to call from any thread.
+	 */
+	public void showStatus(String message) {
+		SwingUtilities.invokeLater(() -> status.setText(message));
+	}
+
+	/**
+	 * Waits until the user closes the browser
+	 */
+	public void awaitClose() throws InterruptedException {
+		closed.await();
+	}
+}
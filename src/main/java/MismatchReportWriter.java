@@ -0,0 +1,90 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes mismatches to a machine-readable report as they are found. The format is picked from the report's file
+ * extension: ".jsonl" writes one JSON object per line, anything else writes CSV.
+ */
+public class MismatchReportWriter implements MismatchSink, Closeable {
+	private final Writer out;
+	private final boolean jsonLines;
+	private String sourceFile = "";
+	private int mismatchCount = 0;
+
+	public MismatchReportWriter(Path report) throws IOException {
+		this(Files.newBufferedWriter(report, StandardCharsets.UTF_8), report.getFileName().toString().endsWith(".jsonl"));
+	}
+
+	public MismatchReportWriter(Writer out, boolean jsonLines) throws IOException {
+		this.out = (out instanceof BufferedWriter) ? out : new BufferedWriter(out);
+		this.jsonLines = jsonLines;
+		if (!jsonLines) {
+			this.out.write("File,Subject ID,Timepoint,Domain,Given,Calculated\n");
+		}
+	}
+
+	/**
+	 * Sets the scores file that the following mismatches come from
+	 * @param sourceFile Name written in each report line
+	 */
+	public void setSourceFile(String sourceFile) {
+		this.sourceFile = sourceFile;
+	}
+
+	public int getMismatchCount() {
+		return mismatchCount;
+	}
+
+	@Override
+	public void accept(Mismatch mismatch) {
+		mismatchCount++;
+		try {
+			if (jsonLines) {
+				out.write(String.format("{\"file\":\"%s\",\"subjectId\":%d,\"timepoint\":\"%s\",\"domain\":\"%s\",\"given\":%d,\"calculated\":%d}\n",
+						escapeJson(sourceFile), mismatch.subjectId(), mismatch.timepoint().label(), mismatch.domain().label(),
+						mismatch.given(), mismatch.calculated()));
+			} else {
+				out.write(String.format("%s,%d,%s,%s,%d,%d\n", escapeCsv(sourceFile), mismatch.subjectId(),
+						mismatch.timepoint().label(), mismatch.domain().label(), mismatch.given(), mismatch.calculated()));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 * Quotes a CSV cell if it needs it. Shared by every CSV this program writes.
+	 */
+	static String escapeCsv(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	private static String escapeJson(String value) {
+		StringBuilder sb = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+}
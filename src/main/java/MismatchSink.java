@@ -0,0 +1,7 @@
+/**
+ * Receives mismatches as soon as a crosscheck finds them.
+ */
+@FunctionalInterface
+public interface MismatchSink {
+	void accept(Mismatch mismatch);
+}
@@ -0,0 +1,156 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Presents mismatch records to a JTable without copying them into rows of cells. Values are read from the record
+ * when the table asks for them, which it only does for the rows on screen. Each mismatch also carries the user's
+ * resolution of it, the one column that can be edited. A missing given score shows as an empty cell.
+ */
+public class MismatchTableModel extends AbstractTableModel {
+	/**
+	 * What the user decided about a mismatch
+	 */
+	public enum Resolution {
+		UNRESOLVED("Unresolved"),
+		GIVEN_IS_CORRECT("Given is correct"),
+		FIXED_IN_CSV("Fixed in CSV");
+
+		private final String label;
+
+		Resolution(String label) {
+			this.label = label;
+		}
+
+		@Override
+		public String toString() {
+			return label;
+		}
+	}
+
+	/**
+	 * Identifies a mismatch across rechecks. Identical mismatches, e.g. from a row entered twice, are told apart by
+	 * their position among each other in file order, so each keeps its own resolution.
+	 * @param occurrence How many identical mismatches come before it
+	 */
+	public record Key(Mismatch mismatch, int occurrence) {
+	}
+
+	/**
+	 * Gives each mismatch its key as the mismatches are met in file order
+	 */
+	public static class KeyCounter {
+		private final Map<Mismatch, Integer> seen = new HashMap<>();
+
+		public Key next(Mismatch mismatch) {
+			return new Key(mismatch, seen.merge(mismatch, 1, Integer::sum) - 1);
+		}
+	}
+
+	public final static int SUBJECT_ID = 0;
+	public final static int TIMEPOINT = 1;
+	public final static int DOMAIN = 2;
+	public final static int GIVEN = 3;
+	public final static int CALCULATED = 4;
+	public final static int DIFFERENCE = 5;
+	public final static int RESOLUTION = 6;
+
+	private final static String[] COLUMN_NAMES = {"Subject ID", "Timepoint", "Domain", "Given", "Calculated",
+			"Difference", "Resolution"};
+	private final static Class<?>[] COLUMN_CLASSES = {Integer.class, Timepoint.class, Domain.class, Integer.class,
+			Integer.class, Integer.class, Resolution.class};
+
+	private List<Mismatch> mismatches;
+	private Key[] keys;
+	private Resolution[] resolutions;
+	// Outlives the model, so answers carry over to the next run that finds the same mismatch
+	private final Map<Key, Resolution> remembered;
+
+	/**
+	 * @param mismatches Mismatches to show, in file order; must support fast random access
+	 * @param remembered Resolutions chosen so far, updated as the user chooses more
+	 */
+	public MismatchTableModel(List<Mismatch> mismatches, Map<Key, Resolution> remembered) {
+		this.remembered = remembered;
+		setMismatches(mismatches);
+	}
+
+	/**
+	 * Replaces every mismatch, e.g. after the file is rechecked
+	 */
+	public void setMismatches(List<Mismatch> mismatches) {
+		this.mismatches = mismatches;
+		this.keys = new Key[mismatches.size()];
+		this.resolutions = new Resolution[mismatches.size()];
+		KeyCounter counter = new KeyCounter();
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = counter.next(mismatches.get(i));
+			resolutions[i] = remembered.get(keys[i]);
+		}
+		fireTableDataChanged();
+	}
+
+	public Mismatch getMismatch(int row) {
+		return mismatches.get(row);
+	}
+
+	public Resolution getResolution(int row) {
+		return (resolutions[row] == null) ? Resolution.UNRESOLVED : resolutions[row];
+	}
+
+	@Override
+	public int getRowCount() {
+		return mismatches.size();
+	}
+
+	@Override
+	public int getColumnCount() {
+		return COLUMN_NAMES.length;
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		return COLUMN_NAMES[column];
+	}
+
+	@Override
+	public Class<?> getColumnClass(int column) {
+		return COLUMN_CLASSES[column];
+	}
+
+	@Override
+	public Object getValueAt(int row, int column) {
+		Mismatch mismatch = mismatches.get(row);
+		return switch (column) {
+			case SUBJECT_ID -> mismatch.subjectId();
+			case TIMEPOINT -> mismatch.timepoint();
+			case DOMAIN -> mismatch.domain();
+			case GIVEN -> (mismatch.given() == ScoreRowSource.MISSING_INT) ? null : mismatch.given();
+			case CALCULATED -> mismatch.calculated();
+			case DIFFERENCE -> (mismatch.given() == ScoreRowSource.MISSING_INT) ? null
+					: mismatch.given() - mismatch.calculated();
+			case RESOLUTION -> getResolution(row);
+			default -> throw new IndexOutOfBoundsException(column);
+		};
+	}
+
+	@Override
+	public boolean isCellEditable(int row, int column) {
+		return column == RESOLUTION;
+	}
+
+	@Override
+	public void setValueAt(Object value, int row, int column) {
+		if (column != RESOLUTION || !(value instanceof Resolution resolution)) {
+			return;
+		}
+		resolutions[row] = resolution;
+		if (resolution == Resolution.UNRESOLVED) {
+			remembered.remove(keys[row]);
+		} else {
+			remembered.put(keys[row], resolution);
+		}
+		fireTableCellUpdated(row, column);
+	}
+}
@@ -0,0 +1,241 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * Compiles the norm table CSVs into a single binary pack and opens packs for reading.
+ *
+ * Layout (big endian):
+ * <pre>
+ * header   magic (int), version (int), table count (int), CRC32 of everything after the header (int),
+ *          hash of the source CSVs (long; see sourceHash(...))
+ * index    per table: stage (byte), test (byte), age range (byte), unused (byte), rows (short), columns (short),
+ *          byte offset of the table's cells (int)
+ * cells    per table: rows x columns int16 values, row-major
+ * </pre>
+ * Bucketed header columns ("9-10", "19-20") are already expanded into one column per raw score. The source hash ties a
+ * pack to the CSVs it was compiled from, so a pack left over from before a CSV was edited is detected as stale.
+ */
+public class NormTablePack {
+	public final static int MAGIC = 0x524E5450; // "RNTP"
+	public final static int VERSION = 2;
+
+	final static int HEADER_BYTES = 24;
+	private final static int SOURCE_HASH_OFFSET = 16;
+	final static int INDEX_ENTRY_BYTES = 12;
+
+	private final static String TABLE_PATH = "%s/%s/%s/%s-%s-%s.csv";
+
+	/**
+	 * Build step: compiles every norm table under a resource directory into a pack file
+	 * @param args The resource directory followed by the pack file to write
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: NormTablePack <resource directory> <output pack>");
+			System.exit(2);
+		}
+		ByteBuffer pack = compile(args[0]);
+		Path output = Path.of(args[1]);
+		if (output.getParent() != null) {
+			Files.createDirectories(output.getParent());
+		}
+		try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (pack.hasRemaining()) {
+				channel.write(pack);
+			}
+		}
+		System.out.printf("Wrote %d norm tables to %s\n", pack.getInt(8), output);
+	}
+
+	/**
+	 * Reads every norm table CSV under the resource directory into an in-memory pack
+	 * @param resourceDirectory Directory holding the baseline, mid, and post table folders
+	 * @return A buffer holding a complete pack, positioned at 0
+	 */
+	public static ByteBuffer compile(String resourceDirectory) throws IOException {
+		String[] stages = NormTableRegistry.TEST_STAGES;
+		String[] tests = NormTableRegistry.TESTS;
+		String[] ageRanges = NormTableRegistry.AGE_RANGES;
+		int tableCount = stages.length * tests.length * ageRanges.length;
+
+		int[][] grids = new int[tableCount][];
+		int[] rowCounts = new int[tableCount];
+		int[] columnCounts = new int[tableCount];
+		int cellBytes = 0;
+		for (int stage = 0; stage < stages.length; stage++) {
+			for (int test = 0; test < tests.length; test++) {
+				for (int ageRange = 0; ageRange < ageRanges.length; ageRange++) {
+					int index = NormTableRegistry.tableIndex(stage, test, ageRange);
+					String fileName = String.format(TABLE_PATH, resourceDirectory, stages[stage], tests[test],
+							ageRanges[ageRange], stages[stage], tests[test]);
+					int[] shape = new int[2];
+					grids[index] = readTable(fileName, shape);
+					rowCounts[index] = shape[0];
+					columnCounts[index] = shape[1];
+					cellBytes += shape[0] * shape[1] * Short.BYTES;
+				}
+			}
+		}
+
+		int cellsStart = HEADER_BYTES + tableCount * INDEX_ENTRY_BYTES;
+		ByteBuffer pack = ByteBuffer.allocate(cellsStart + cellBytes).order(ByteOrder.BIG_ENDIAN);
+		pack.putInt(MAGIC).putInt(VERSION).putInt(tableCount).putInt(0).putLong(sourceHash(resourceDirectory));
+		int offset = cellsStart;
+		for (int stage = 0; stage < stages.length; stage++) {
+			for (int test = 0; test < tests.length; test++) {
+				for (int ageRange = 0; ageRange < ageRanges.length; ageRange++) {
+					int index = NormTableRegistry.tableIndex(stage, test, ageRange);
+					pack.put((byte) stage).put((byte) test).put((byte) ageRange).put((byte) 0);
+					pack.putShort((short) rowCounts[index]).putShort((short) columnCounts[index]).putInt(offset);
+					offset += rowCounts[index] * columnCounts[index] * Short.BYTES;
+				}
+			}
+		}
+		for (int[] grid : grids) {
+			for (int cell : grid) {
+				if (cell < Short.MIN_VALUE || cell > Short.MAX_VALUE) {
+					throw new IOException("Norm table value does not fit in a pack cell: " + cell);
+				}
+				pack.putShort((short) cell);
+			}
+		}
+		pack.putInt(12, checksum(pack));
+		pack.position(0);
+		return pack;
+	}
+
+	/**
+	 * Memory-maps a pack file and verifies its header and checksum
+	 * @param packFile A file written by main(...)
+	 * @return A read-only buffer over the pack
+	 * @throws IOException If the file can't be read or is not a valid pack of this version
+	 */
+	public static ByteBuffer open(Path packFile) throws IOException {
+		ByteBuffer pack;
+		try (FileChannel channel = FileChannel.open(packFile, StandardOpenOption.READ)) {
+			pack = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (pack.capacity() < HEADER_BYTES || pack.getInt(0) != MAGIC) {
+			throw new IOException(packFile + " is not a norm table pack");
+		} else if (pack.getInt(4) != VERSION) {
+			throw new IOException(String.format("%s is pack version %d, expected %d", packFile, pack.getInt(4), VERSION));
+		} else if (pack.getInt(12) != checksum(pack)) {
+			throw new IOException(packFile + " failed its checksum");
+		}
+		return pack;
+	}
+
+	/**
+	 * Checks that a pack was compiled from the norm table CSVs as they are now
+	 * @param pack A pack returned by open(...)
+	 * @param resourceDirectory Directory holding the baseline, mid, and post table folders
+	 * @throws IOException If a CSV can't be read or any CSV has changed since the pack was compiled
+	 */
+	public static void checkSources(ByteBuffer pack, String resourceDirectory) throws IOException {
+		if (pack.getLong(SOURCE_HASH_OFFSET) != sourceHash(resourceDirectory)) {
+			throw new IOException("the norm table CSVs have changed since it was built");
+		}
+	}
+
+	/**
+	 * Hashes the bytes of every norm table CSV, in table order
+	 * @param resourceDirectory Directory holding the baseline, mid, and post table folders
+	 * @return The first 8 bytes of the SHA-256 of every table
+	 */
+	static long sourceHash(String resourceDirectory) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e); // every JVM has it
+		}
+		String[] stages = NormTableRegistry.TEST_STAGES;
+		String[] tests = NormTableRegistry.TESTS;
+		String[] ageRanges = NormTableRegistry.AGE_RANGES;
+		for (String stage : stages) {
+			for (String test : tests) {
+				for (String ageRange : ageRanges) {
+					byte[] table = Files.readAllBytes(Path.of(String.format(TABLE_PATH, resourceDirectory, stage, test,
+							ageRange, stage, test)));
+					digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(0, table.length));
+					digest.update(table);
+				}
+			}
+		}
+		return ByteBuffer.wrap(digest.digest()).getLong();
+	}
+
+	private static int checksum(ByteBuffer pack) {
+		CRC32 crc = new CRC32();
+		crc.update(pack.slice(HEADER_BYTES, pack.capacity() - HEADER_BYTES));
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Reads one norm table CSV, expanding bucketed header columns
+	 * @param fileName Path of the norm table
+	 * @param shape Receives the row count and expanded column count
+	 * @return The table's cells, row-major
+	 */
+	private static int[] readTable(String fileName, int[] shape) throws IOException {
+		try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
+			String header = br.readLine();
+			if (header == null) {
+				throw new IOException(fileName + " is empty");
+			}
+			// Skip the row label column and count how many raw scores each header covers
+			String[] headers = header.split(",");
+			int[] widths = new int[headers.length - 1];
+			int columnCount = 0;
+			for (int i = 1; i < headers.length; i++) {
+				String name = headers[i].trim();
+				int dashIndex = name.indexOf('-');
+				widths[i - 1] = (dashIndex < 0) ? 1
+						: Integer.parseInt(name.substring(dashIndex + 1)) - Integer.parseInt(name.substring(0, dashIndex)) + 1;
+				columnCount += widths[i - 1];
+			}
+
+			ArrayList<int[]> rows = new ArrayList<>();
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (line.isBlank()) {
+					continue;
+				}
+				String[] values = line.split(",");
+				if (values.length != headers.length) {
+					throw new IOException(String.format("%s row %d has %d values, expected %d", fileName,
+							rows.size() + 1, values.length, headers.length));
+				}
+				int[] row = new int[columnCount];
+				int column = 0;
+				for (int i = 1; i < values.length; i++) {
+					int value = Integer.parseInt(values[i].trim());
+					for (int j = 0; j < widths[i - 1]; j++) {
+						row[column++] = value;
+					}
+				}
+				rows.add(row);
+			}
+
+			int[] cells = new int[rows.size() * columnCount];
+			for (int i = 0; i < rows.size(); i++) {
+				System.arraycopy(rows.get(i), 0, cells, i * columnCount, columnCount);
+			}
+			shape[0] = rows.size();
+			shape[1] = columnCount;
+			return cells;
+		}
+	}
+}
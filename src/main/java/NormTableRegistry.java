@@ -0,0 +1,163 @@
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.util.logging.Logger;
+
+/**
+ * Holds every RBANS norm table (test stage x domain x age range) so that scoring a subject is a plain buffer lookup
+ * instead of a CSV parse.
+ *
+ * The tables live in a norm table pack (see NormTablePack): either a pack file memory-mapped at startup, or a pack
+ * compiled in memory from the CSVs when no pack file is available. Each table is stored row-major: the row is the raw
+ * score on the table's vertical axis and the column is the raw score named in the table's header. Bucketed header
+ * columns ("9-10" in language, "19-20" in delayed memory) are split into one column per raw score.
+ */
+public class NormTableRegistry {
+	public final static String[] TEST_STAGES = {"baseline", "mid", "post"};
+	public final static String[] TESTS = {"attention", "language", "visuospatial", "delayed-memory", "immediate-memory"};
+	public final static String[] AGE_RANGES = {"20-39", "40-49", "50-59", "60-69"};
+
+	// Relative to the project directory (see locate(...))
+	public final static String DEFAULT_RESOURCE_DIRECTORY = "src/main/resources";
+	public final static String DEFAULT_PACK = "target/norm-tables.pack";
+
+	// Returned by lookup(...) when a raw score falls outside its norm table
+	public final static int OUT_OF_RANGE = -2;
+
+	public final static int ATTENTION = 0;
+	public final static int LANGUAGE = 1;
+	public final static int VISUOSPATIAL = 2;
+	public final static int DELAYED_MEMORY = 3;
+	public final static int IMMEDIATE_MEMORY = 4;
+	// Test index of a score that is calculated from other scores rather than looked up
+	public final static int NO_NORM_TABLE = -1;
+
+	private final static Logger LOGGER = Logger.getLogger(NormTableRegistry.class.getName());
+
+	private final ByteBuffer cells; // int16 cells, read with absolute gets so the registry is safe to share
+	private final int[] cellOffsets;
+	private final int[] columnCounts;
+	private final int[] rowCounts;
+
+	private NormTableRegistry(ByteBuffer pack) throws IOException {
+		int tableCount = TEST_STAGES.length * TESTS.length * AGE_RANGES.length;
+		if (pack.getInt(8) != tableCount) {
+			throw new IOException(String.format("Norm table pack holds %d tables, expected %d", pack.getInt(8), tableCount));
+		}
+		this.cells = pack;
+		this.cellOffsets = new int[tableCount];
+		this.columnCounts = new int[tableCount];
+		this.rowCounts = new int[tableCount];
+		for (int i = 0; i < tableCount; i++) {
+			int entry = NormTablePack.HEADER_BYTES + i * NormTablePack.INDEX_ENTRY_BYTES;
+			int index = tableIndex(pack.get(entry), pack.get(entry + 1), pack.get(entry + 2));
+			rowCounts[index] = pack.getShort(entry + 4);
+			columnCounts[index] = pack.getShort(entry + 6);
+			cellOffsets[index] = pack.getInt(entry + 8);
+		}
+	}
+
+	/**
+	 * Reads every norm table CSV under the given resource directory once
+	 * @param resourceDirectory Directory holding the baseline, mid, and post table folders
+	 * @return A registry holding all norm tables
+	 */
+	public static NormTableRegistry load(String resourceDirectory) throws IOException {
+		return new NormTableRegistry(NormTablePack.compile(resourceDirectory));
+	}
+
+	/**
+	 * Memory-maps a compiled norm table pack, falling back to the CSVs if the pack is missing, invalid, or was compiled
+	 * from CSVs that have since changed
+	 * @param packFile Pack written by the build (see NormTablePack.main)
+	 * @param resourceDirectory Directory holding the baseline, mid, and post table folders
+	 * @return A registry holding all norm tables
+	 */
+	public static NormTableRegistry open(String packFile, String resourceDirectory) throws IOException {
+		Path packPath = Path.of(packFile);
+		if (Files.isRegularFile(packPath)) {
+			try {
+				ByteBuffer pack = NormTablePack.open(packPath);
+				if (Files.isDirectory(Path.of(resourceDirectory))) {
+					NormTablePack.checkSources(pack, resourceDirectory);
+				} else {
+					LOGGER.warning("Using " + packFile + " without checking it: " + resourceDirectory + " does not exist");
+				}
+				return new NormTableRegistry(pack);
+			} catch (IOException e) {
+				LOGGER.warning("Ignoring norm table pack: " + e.getMessage());
+			}
+		}
+		return load(resourceDirectory);
+	}
+
+	/**
+	 * Opens the pack written by the build, falling back to the CSVs under src/main/resources
+	 * @return A registry holding all norm tables
+	 */
+	public static NormTableRegistry openDefault() throws IOException {
+		return open(locate(DEFAULT_PACK), locate(DEFAULT_RESOURCE_DIRECTORY));
+	}
+
+	/**
+	 * Finds a file of the project this class was loaded from, so the tables are found no matter which directory the
+	 * program is started in. Looks next to the class files or jar and in each directory above them (e.g. the project
+	 * directory above target/classes), then falls back to the working directory.
+	 * @param relativePath A path relative to the project directory, e.g. DEFAULT_PACK
+	 * @return The path of the first match, or relativePath itself
+	 */
+	static String locate(String relativePath) {
+		try {
+			CodeSource codeSource = NormTableRegistry.class.getProtectionDomain().getCodeSource();
+			if (codeSource != null && codeSource.getLocation() != null) {
+				for (Path directory = Path.of(codeSource.getLocation().toURI()); directory != null;
+						directory = directory.getParent()) {
+					Path candidate = directory.resolve(relativePath);
+					if (Files.exists(candidate)) {
+						return candidate.toString();
+					}
+				}
+			}
+		} catch (URISyntaxException | IllegalArgumentException | SecurityException e) {
+			LOGGER.fine("Could not locate the class files: " + e.getMessage());
+		}
+		return relativePath;
+	}
+
+	public static int tableIndex(int stage, int test, int ageRange) {
+		return (stage * TESTS.length + test) * AGE_RANGES.length + ageRange;
+	}
+
+	/**
+	 * @return The CRC32 of every table, which changes whenever any norm table does
+	 */
+	public int checksum() {
+		return cells.getInt(12);
+	}
+
+	public int columnCount(int tableIndex) {
+		return columnCounts[tableIndex];
+	}
+
+	public int rowCount(int tableIndex) {
+		return rowCounts[tableIndex];
+	}
+
+	/**
+	 * Looks up an index score
+	 * @param tableIndex Index returned by tableIndex(...)
+	 * @param column Raw score on the table's header axis
+	 * @param row Raw score on the table's vertical axis
+	 * @return The index score in that cell, or OUT_OF_RANGE if either raw score falls outside the table
+	 */
+	public int lookup(int tableIndex, int column, int row) {
+		int columnCount = columnCounts[tableIndex];
+		if (column < 0 || column >= columnCount || row < 0 || row >= rowCounts[tableIndex]) {
+			return OUT_OF_RANGE;
+		}
+		return cells.getShort(cellOffsets[tableIndex] + (row * columnCount + column) * Short.BYTES);
+	}
+}
@@ -0,0 +1,149 @@
+import tech.tablesaw.api.Table;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Crosschecks the rows of a scores file on several cores at once. Rows are split into chunks and each chunk collects
+ * its own mismatches. A loaded table's chunks are merged and sorted into REPORT_ORDER; a streamed file's chunks are
+ * handed on in file order as they finish, so only a few chunks are held at once. Either way the report comes out in
+ * the same order no matter how the work was scheduled.
+ */
+public class ParallelCrosscheck {
+	// Rows a single task scores before it stops splitting
+	private final static int CHUNK_ROWS = 2048;
+	// Chunks the reader may get ahead of the oldest unfinished chunk when streaming
+	private final static int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+
+	/**
+	 * Orders mismatches by Subject ID, then timepoint, then domain
+	 */
+	public final static Comparator<Mismatch> REPORT_ORDER = Comparator.comparingInt(Mismatch::subjectId)
+			.thenComparing(Mismatch::timepoint)
+			.thenComparing(Mismatch::domain);
+
+	private final Crosschecker crosschecker;
+	private final int parallelism;
+
+	/**
+	 * @param crosschecker Crosschecker shared by every thread
+	 * @param parallelism Number of threads to score with
+	 */
+	public ParallelCrosscheck(Crosschecker crosschecker, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1");
+		}
+		this.crosschecker = crosschecker;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Crosschecks every row of a loaded table
+	 * @param table A scores table that has all EXPECTED_HEADERS
+	 * @return Every mismatch, in REPORT_ORDER
+	 */
+	public List<Mismatch> crosscheck(Table table) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			List<Mismatch> mismatches = pool.invoke(new ChunkTask(table, 0, table.rowCount()));
+			mismatches.sort(REPORT_ORDER);
+			return mismatches;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Crosschecks a scores file as it is read, in constant memory. The calling thread parses rows into chunks while
+	 * the pool scores the chunks already read, and hands on the oldest chunk's mismatches once enough are in flight.
+	 * @param reader A reader positioned before the first row of a file that has all EXPECTED_HEADERS
+	 * @param mismatches Receives every mismatch in file order, on the calling thread
+	 */
+	public void crosscheck(ScoreRowSource reader, MismatchSink mismatches) throws IOException {
+		int[] columns = Crosschecker.resolveColumns(reader.headers());
+		int timepointColumn = reader.columnIndex("Timepoint");
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		// Chunks read and not yet handed on, oldest first
+		Deque<Future<List<Mismatch>>> chunks = new ArrayDeque<>();
+		try {
+			boolean more = true;
+			while (more) {
+				if (chunks.size() >= parallelism * CHUNKS_IN_FLIGHT_PER_THREAD) {
+					chunks.removeFirst().get().forEach(mismatches::accept);
+				}
+				int[][] values = new int[CHUNK_ROWS][columns.length];
+				Timepoint[] timepoints = new Timepoint[CHUNK_ROWS];
+				int rows = 0;
+				while (rows < CHUNK_ROWS && (more = reader.next())) {
+					for (int i = 0; i < columns.length; i++) {
+						values[rows][i] = reader.getInt(columns[i]);
+					}
+					timepoints[rows] = reader.getTimepoint(timepointColumn);
+					rows++;
+				}
+				if (rows == 0) {
+					break;
+				}
+
+				int chunkRows = rows;
+				chunks.addLast(pool.submit(() -> {
+					List<Mismatch> found = new ArrayList<>();
+					for (int r = 0; r < chunkRows; r++) {
+						crosschecker.crosscheckRow(timepoints[r], values[r], found::add);
+					}
+					return found;
+				}));
+			}
+			while (!chunks.isEmpty()) {
+				chunks.removeFirst().get().forEach(mismatches::accept);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while crosschecking", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Crosscheck failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Splits a range of rows in half until it is small enough to score directly
+	 */
+	private class ChunkTask extends RecursiveTask<List<Mismatch>> {
+		private final Table table;
+		private final int fromRow;
+		private final int toRow;
+
+		ChunkTask(Table table, int fromRow, int toRow) {
+			this.table = table;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+
+		@Override
+		protected List<Mismatch> compute() {
+			if (toRow - fromRow <= CHUNK_ROWS) {
+				List<Mismatch> mismatches = new ArrayList<>();
+				crosschecker.crosscheck(table, fromRow, toRow, mismatches::add);
+				return mismatches;
+			}
+			int middle = (fromRow + toRow) >>> 1;
+			ChunkTask left = new ChunkTask(table, fromRow, middle);
+			ChunkTask right = new ChunkTask(table, middle, toRow);
+			right.fork();
+			List<Mismatch> mismatches = left.compute();
+			mismatches.addAll(right.join());
+			return mismatches;
+		}
+	}
+}
@@ -1,45 +1,100 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
 /**
  * A class that represents a progress bar to show the user a GUI and give them a sense of where their task is currently
- * at.
+ * at. Besides the bar it shows how many rows have been scored, how fast, and about how long is left. Every method must
+ * be called on the event dispatch thread (see CrosscheckWorker).
  *
  * @author Colten Glover
  *
  * @version 05/07/2024
  */
 public class ProgressBar extends JFrame {
-	
+
 	private JProgressBar progressBar;
-	private int completed = 0;
-	private int goal;
-	
-	public ProgressBar(int goal) {
-		setTitle("Progress Bar Example");
-		setSize(300, 150);
-		setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+	private JLabel status;
+	private long goal;
+
+	/**
+	 * Must be called on the event dispatch thread (see open(...))
+	 * @param goal Number of rows to score, or -1 if unknown
+	 * @param onCancel Run when the user cancels or closes the window
+	 */
+	public ProgressBar(long goal, Runnable onCancel) {
+		setTitle("Crosschecking");
+		setSize(360, 150);
+		setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
 		setLocationRelativeTo(null);
 		setLayout(new BorderLayout());
-		
+
 		// Create progress bar
 		this.goal = goal;
-		progressBar = new JProgressBar(0, goal);
+		progressBar = new JProgressBar(0, 1000);
 		progressBar.setStringPainted(true); // Display progress as text
+		progressBar.setIndeterminate(goal <= 0);
 		progressBar.setValue(0);
 		add(progressBar, BorderLayout.CENTER);
+
+		status = new JLabel(" ", SwingConstants.CENTER);
+		add(status, BorderLayout.NORTH);
+		JButton cancel = new JButton("Cancel");
+		cancel.addActionListener(e -> onCancel.run());
+		add(cancel, BorderLayout.SOUTH);
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				onCancel.run();
+			}
+		});
 		setVisible(true);
 	}
-	
-	public void updateProgress() {
-		completed++;
-		double percentCompleted = (((double) completed) / goal) * 100;
-		progressBar.setValue((int) percentCompleted);
-		
-		// Check if progress is complete
-		if (completed == goal) {
-			progressBar.setValue(100);
-			dispose();
+
+	/**
+	 * Opens a progress bar from any thread
+	 * @param goal Number of rows to score, or -1 if unknown
+	 * @param onCancel Run when the user cancels or closes the window
+	 * @return The progress bar, once it is showing, or null if the calling thread was interrupted while waiting
+	 */
+	public static ProgressBar open(long goal, Runnable onCancel) {
+		if (SwingUtilities.isEventDispatchThread()) {
+			return new ProgressBar(goal, onCancel);
+		}
+		ProgressBar[] progressBar = new ProgressBar[1];
+		try {
+			SwingUtilities.invokeAndWait(() -> progressBar[0] = new ProgressBar(goal, onCancel));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			// The window may still open after this returns; close it as soon as it does, since no one else can
+			SwingUtilities.invokeLater(() -> {
+				if (progressBar[0] != null) {
+					progressBar[0].dispose();
+				}
+			});
+			return null;
+		} catch (java.lang.reflect.InvocationTargetException e) {
+			throw new IllegalStateException("Could not open progress bar", e.getCause());
+		}
+		return progressBar[0];
+	}
+
+	/**
+	 * @param completed Rows scored so far
+	 * @param rowsPerSecond Rows scored per second so far
+	 */
+	public void showProgress(long completed, double rowsPerSecond) {
+		if (goal <= 0) {
+			progressBar.setString(String.format("%,d rows", completed));
+			status.setText(String.format("%,.0f rows/sec", rowsPerSecond));
+			return;
 		}
+		// Tenths of a percent, so large files still visibly move
+		progressBar.setValue((int) Math.min(1000, completed * 1000 / goal));
+		progressBar.setString(String.format("%.1f%%", Math.min(100.0, completed * 100.0 / goal)));
+		long secondsLeft = (rowsPerSecond > 0) ? (long) Math.ceil((goal - completed) / rowsPerSecond) : 0;
+		status.setText(String.format("%,d of %,d rows | %,.0f rows/sec | about %d:%02d left", completed, goal,
+				rowsPerSecond, secondsLeft / 60, secondsLeft % 60));
 	}
 }
@@ -0,0 +1,160 @@
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Calculates RBANS domain index scores from subtest raw scores using the norm tables in a NormTableRegistry.
+ *
+ * Scores that can't be calculated are returned as negative result codes (EMPTY_CELL, OUT_OF_RANGE) instead of
+ * throwing, so a bad row costs no more to score than a good one. Index scores are never negative, so any result below
+ * zero is a code.
+ * A scorer holds no mutable state, so one instance can be shared by every thread.
+ */
+public class RbansScorer {
+	// A raw score needed for the index score is empty or not a number
+	public final static int EMPTY_CELL = -1;
+	// A raw score or age falls outside the norm tables
+	public final static int OUT_OF_RANGE = NormTableRegistry.OUT_OF_RANGE;
+
+	private final static Logger LOGGER = Logger.getLogger(RbansScorer.class.getName());
+
+	// AGE_BANDS[age] is the index of the age's range in NormTableRegistry.AGE_RANGES, or OUT_OF_RANGE
+	private final static int[] AGE_BANDS = buildAgeBands(NormTableRegistry.AGE_RANGES);
+
+	private final NormTableRegistry normTables;
+
+	public RbansScorer(NormTableRegistry normTables) {
+		this.normTables = normTables;
+	}
+
+	/**
+	 * @return The norm tables scores are looked up in
+	 */
+	public NormTableRegistry getNormTables() {
+		return normTables;
+	}
+
+	/**
+	 * Finds the RBANS age range that an age falls in
+	 * @param age A subject's age in years
+	 * @return The index of the age range in NormTableRegistry.AGE_RANGES, or OUT_OF_RANGE
+	 */
+	public static int ageBand(int age) {
+		return (age >= 0 && age < AGE_BANDS.length) ? AGE_BANDS[age] : OUT_OF_RANGE;
+	}
+
+	/**
+	 * @return Whether a result is a score rather than a result code
+	 */
+	public static boolean isScore(int result) {
+		return result >= 0;
+	}
+
+	/**
+	 * @return Whether ageBand is an index into NormTableRegistry.AGE_RANGES, as returned by ageBand(...) for an age
+	 * within the norm tables; every calculate method returns OUT_OF_RANGE for anything else
+	 */
+	public static boolean isAgeBand(int ageBand) {
+		return ageBand >= 0 && ageBand < NormTableRegistry.AGE_RANGES.length;
+	}
+
+	public int calculateImmediateMemoryScore(Timepoint timepoint, int ageBand, int storyMemoryScore, int listLearningScore) {
+		if (!isAgeBand(ageBand)) {
+			return OUT_OF_RANGE;
+		}
+		if (storyMemoryScore < 0 || listLearningScore < 0) {
+			return EMPTY_CELL;
+		}
+		int table = NormTableRegistry.tableIndex(timepoint.ordinal(), NormTableRegistry.IMMEDIATE_MEMORY, ageBand);
+		int score = normTables.lookup(table, storyMemoryScore, listLearningScore);
+		if (LOGGER.isLoggable(Level.FINEST)) {
+			LOGGER.finest(String.format("Immediate Memory: Story Memory: %d | List Learning: %d -> %d", storyMemoryScore, listLearningScore, score));
+		}
+		return score;
+	}
+
+	public int calculateVisuospatialScore(Timepoint timepoint, int ageBand, int lineOrientationScore, int figureCopyScore) {
+		if (!isAgeBand(ageBand)) {
+			return OUT_OF_RANGE;
+		}
+		if (lineOrientationScore < 0 || figureCopyScore < 0) {
+			return EMPTY_CELL;
+		}
+		int table = NormTableRegistry.tableIndex(timepoint.ordinal(), NormTableRegistry.VISUOSPATIAL, ageBand);
+		int score = normTables.lookup(table, lineOrientationScore, figureCopyScore);
+		if (LOGGER.isLoggable(Level.FINEST)) {
+			LOGGER.finest(String.format("Visuospatial: Line Orientation: %d | Figure Copy: %d -> %d", lineOrientationScore, figureCopyScore, score));
+		}
+		return score;
+	}
+
+	public int calculateLanguageScore(Timepoint timepoint, int ageBand, int pictureNamingScore, int semanticFluencyScore) {
+		if (!isAgeBand(ageBand)) {
+			return OUT_OF_RANGE;
+		}
+		if (pictureNamingScore < 0 || semanticFluencyScore < 0) {
+			return EMPTY_CELL;
+		}
+		int table = NormTableRegistry.tableIndex(timepoint.ordinal(), NormTableRegistry.LANGUAGE, ageBand);
+		// The last column and row ("9-10" and "36+") hold every score at or above them
+		int column = Math.min(pictureNamingScore, normTables.columnCount(table) - 1);
+		int row = Math.min(semanticFluencyScore, normTables.rowCount(table) - 1);
+		int score = normTables.lookup(table, column, row);
+		if (LOGGER.isLoggable(Level.FINEST)) {
+			LOGGER.finest(String.format("Language: Picture: %d | Semantic Fluency: %d -> %d", pictureNamingScore, semanticFluencyScore, score));
+		}
+		return score;
+	}
+
+	public int calculateAttentionScore(Timepoint timepoint, int ageBand, int digitSpanScore, int codingScore) {
+		if (!isAgeBand(ageBand)) {
+			return OUT_OF_RANGE;
+		}
+		if (digitSpanScore < 0 || codingScore < 0) {
+			return EMPTY_CELL;
+		}
+		int table = NormTableRegistry.tableIndex(timepoint.ordinal(), NormTableRegistry.ATTENTION, ageBand);
+		int score = normTables.lookup(table, digitSpanScore, codingScore);
+		if (LOGGER.isLoggable(Level.FINEST)) {
+			LOGGER.finest(String.format("Attention: Digit Span: %d | Coding: %d -> %d", digitSpanScore, codingScore, score));
+		}
+		return score;
+	}
+
+	public int calculateDelayedMemoryScore(Timepoint timepoint, int ageBand, int listRecognitionScore, int listRecallScore, int storyRecallScore, int figureRecallScore) {
+		if (!isAgeBand(ageBand)) {
+			return OUT_OF_RANGE;
+		}
+		if (listRecognitionScore < 0 || listRecallScore < 0 || storyRecallScore < 0 || figureRecallScore < 0) {
+			return EMPTY_CELL;
+		}
+		int table = NormTableRegistry.tableIndex(timepoint.ordinal(), NormTableRegistry.DELAYED_MEMORY, ageBand);
+		// The last column ("19-20") holds every list recognition score at or above it
+		int column = Math.min(listRecognitionScore, normTables.columnCount(table) - 1);
+		int score = normTables.lookup(table, column, listRecallScore + storyRecallScore + figureRecallScore);
+		if (LOGGER.isLoggable(Level.FINEST)) {
+			LOGGER.finest(String.format("Delayed Memory: List Recognition: %d | List Recall: %d | Story Recall: %d | Figure Recall: %d -> %d", listRecognitionScore, listRecallScore, storyRecallScore, figureRecallScore, score));
+		}
+		return score;
+	}
+
+	private static int[] buildAgeBands(String[] ageRanges) {
+		int oldest = 0;
+		int[][] bounds = new int[ageRanges.length][2];
+		for (int i = 0; i < ageRanges.length; i++) {
+			// Get lower and upper bounds of age range
+			int dashIndex = ageRanges[i].indexOf('-');
+			bounds[i][0] = Integer.parseInt(ageRanges[i].substring(0, dashIndex));
+			bounds[i][1] = Integer.parseInt(ageRanges[i].substring(dashIndex + 1));
+			oldest = Math.max(oldest, bounds[i][1]);
+		}
+		int[] ageBands = new int[oldest + 1];
+		Arrays.fill(ageBands, OUT_OF_RANGE);
+		for (int i = 0; i < ageRanges.length; i++) {
+			for (int age = bounds[i][0]; age <= bounds[i][1]; age++) {
+				ageBands[age] = i;
+			}
+		}
+		return ageBands;
+	}
+}
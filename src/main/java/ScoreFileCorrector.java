@@ -0,0 +1,275 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Writes a corrected copy of a scores CSV in which every given domain index score that doesn't match the calculated one
+ * is replaced by the calculated one. The file is parsed once by ScoreFileReader, so the cells corrected are exactly
+ * the ones a streamed crosscheck finds wrong. Everything between corrected rows (the byte order mark, the header,
+ * extra columns, untouched rows, and their line endings) is copied through byte for byte with FileChannel.transferTo;
+ * only the corrected rows are written out again, with every other cell kept as it was.
+ *
+ * The copy is written to a temporary file next to the destination and renamed over it once complete, so a failed
+ * correction never leaves a half written file behind. The temporary file is given the POSIX permissions, owner, and
+ * group of the file it replaces first, since it is created readable by its owner only. A new audit gets those of the
+ * scores file.
+ *
+ * Every changed cell is appended to an audit CSV along with when it was changed, so the audit keeps the history of
+ * every correction of the file. The audit is replaced the same way as the scores file, and only when a cell changed.
+ */
+public class ScoreFileCorrector {
+	private final static String AUDIT_HEADER = "Row,Subject ID,Timepoint,Column,Old,New,Corrected At\n";
+	private final static int WRITE_BUFFER_BYTES = 1 << 16;
+	private final static byte[] COMMA = {','};
+	private final static Logger LOGGER = Logger.getLogger(ScoreFileCorrector.class.getName());
+
+	private final Crosschecker crosschecker;
+
+	public ScoreFileCorrector(Crosschecker crosschecker) {
+		this.crosschecker = crosschecker;
+	}
+
+	/**
+	 * @param scoresFile A scores CSV
+	 * @return Where the audit of scoresFile's corrections goes, e.g. "scores.corrections.csv" for "scores.csv"
+	 */
+	public static Path auditFile(Path scoresFile) {
+		String name = scoresFile.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		return scoresFile.resolveSibling(((dot > 0) ? name.substring(0, dot) : name) + ".corrections.csv");
+	}
+
+	/**
+	 * Corrects a scores CSV
+	 * @param input A scores CSV that has all EXPECTED_HEADERS
+	 * @param output Where the corrected copy goes; may be input itself
+	 * @param audit Where the list of changed cells is appended
+	 * @param shouldCorrect Picks the mismatches to correct, e.g. to leave ones the user said are right
+	 * @return The number of cells corrected
+	 */
+	public int correct(Path input, Path output, Path audit, Predicate<Mismatch> shouldCorrect) throws IOException {
+		Path temporary = Files.createTempFile(output.toAbsolutePath().getParent(), output.getFileName().toString(), ".tmp");
+		Path auditTemporary = null;
+		int corrections = 0;
+		try {
+			auditTemporary = Files.createTempFile(audit.toAbsolutePath().getParent(), audit.getFileName().toString(), ".tmp");
+			// The earlier corrections come first
+			if (Files.exists(audit)) {
+				Files.copy(audit, auditTemporary, StandardCopyOption.REPLACE_EXISTING);
+			} else {
+				Files.writeString(auditTemporary, AUDIT_HEADER, StandardCharsets.UTF_8);
+			}
+			String correctedAt = Instant.now().toString();
+			try (FileChannel source = FileChannel.open(input, StandardOpenOption.READ);
+					ScoreFileReader reader = new ScoreFileReader(input);
+					FileChannel target = FileChannel.open(temporary, StandardOpenOption.WRITE);
+					BufferedWriter auditWriter = Files.newBufferedWriter(auditTemporary, StandardCharsets.UTF_8,
+							StandardOpenOption.APPEND)) {
+				List<String> headers = reader.headers();
+				List<String> missingColumns = Crosschecker.hasCorrectCsvHeaders(Crosschecker.EXPECTED_HEADERS, headers);
+				if (!missingColumns.isEmpty()) {
+					throw new IOException("Some headers are not present! " + missingColumns);
+				}
+				int[] columns = Crosschecker.resolveColumns(headers);
+				int timepointColumn = headers.indexOf("Timepoint");
+
+				ByteBuffer pending = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+				ByteBuffer record = ByteBuffer.allocate(256);
+				List<Mismatch> found = new ArrayList<>();
+				int[] values = new int[Crosschecker.SCORED_COLUMNS.length];
+				int[] correctedColumns = new int[Domain.values().length];
+				int[] correctedValues = new int[correctedColumns.length];
+				long copied = 0; // bytes of input already in the copy
+				// Read just as a streamed crosscheck reads it, so the same cells are found wrong
+				while (reader.next()) {
+					for (int i = 0; i < columns.length; i++) {
+						values[i] = reader.getInt(columns[i]);
+					}
+					found.clear();
+					crosschecker.crosscheckRow(reader.getTimepoint(timepointColumn), values, found::add);
+					found.removeIf(shouldCorrect.negate());
+					if (found.isEmpty()) {
+						continue;
+					}
+
+					int correctedCount = 0;
+					for (Mismatch mismatch : found) {
+						int column = columns[Crosschecker.FIRST_GIVEN + mismatch.domain().ordinal()];
+						correctedColumns[correctedCount] = column;
+						correctedValues[correctedCount++] = mismatch.calculated();
+						auditWriter.write(String.format("%d,%d,%s,%s,%s,%d,%s\n", reader.getRecordNumber(),
+								mismatch.subjectId(), mismatch.timepoint().label(),
+								MismatchReportWriter.escapeCsv(headers.get(column)),
+								MismatchReportWriter.escapeCsv(reader.getString(column)), mismatch.calculated(),
+								correctedAt));
+					}
+					corrections += correctedCount;
+
+					// Everything since the last corrected row goes through unchanged
+					if (reader.getRecordStart() > copied) {
+						flush(pending, target);
+						transfer(source, copied, reader.getRecordStart() - copied, target);
+					}
+					record = readRecord(source, reader, record);
+					writeRecord(reader, record.array(), correctedColumns, correctedValues, correctedCount, pending,
+							target);
+					copied = reader.getRecordEnd();
+				}
+				flush(pending, target);
+				transfer(source, copied, source.size() - copied, target);
+				target.force(false);
+			}
+			if (corrections > 0) {
+				// The audit goes first, so it never misses a correction
+				force(auditTemporary);
+				// A new audit is as readable as the scores it lists
+				copyOwnership(Files.exists(audit) ? audit : input, auditTemporary);
+				Files.move(auditTemporary, audit, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} else if (Files.exists(output) && Files.isSameFile(input, output)) {
+				return 0; // Nothing to rewrite
+			}
+			copyOwnership(Files.exists(output) ? output : input, temporary);
+			Files.move(temporary, output, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			return corrections;
+		} finally {
+			Files.deleteIfExists(temporary);
+			if (auditTemporary != null) {
+				Files.deleteIfExists(auditTemporary);
+			}
+		}
+	}
+
+	private static void force(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.force(false);
+		}
+	}
+
+	/**
+	 * Gives a temporary file the POSIX permissions, owner, and group of the file it will replace, if any
+	 * @param original The file being replaced
+	 * @param temporary Its replacement
+	 */
+	private static void copyOwnership(Path original, Path temporary) throws IOException {
+		PosixFileAttributeView originalView = Files.getFileAttributeView(original, PosixFileAttributeView.class);
+		PosixFileAttributeView temporaryView = Files.getFileAttributeView(temporary, PosixFileAttributeView.class);
+		if (originalView == null || temporaryView == null || !Files.exists(original)) {
+			return;
+		}
+		PosixFileAttributes attributes = originalView.readAttributes();
+		temporaryView.setPermissions(attributes.permissions());
+		try {
+			temporaryView.setGroup(attributes.group());
+			temporaryView.setOwner(attributes.owner());
+		} catch (IOException e) {
+			// Only the superuser can give a file away; the permissions are still kept
+			LOGGER.warning("Could not keep the owner of " + original + ": " + e.getMessage());
+		}
+	}
+
+	private static void transfer(FileChannel source, long position, long count, FileChannel target) throws IOException {
+		// transferTo may stop short of count
+		while (count > 0) {
+			long transferred = source.transferTo(position, count, target);
+			if (transferred <= 0) {
+				throw new IOException("Scores file changed while it was being corrected");
+			}
+			position += transferred;
+			count -= transferred;
+		}
+	}
+
+	/**
+	 * Reads the current record's bytes, quotes and line ending and all, from the file
+	 * @param record Reused if it is big enough
+	 * @return A buffer holding the record from index 0
+	 */
+	private static ByteBuffer readRecord(FileChannel source, ScoreFileReader reader, ByteBuffer record)
+			throws IOException {
+		int length = (int) (reader.getRecordEnd() - reader.getRecordStart());
+		if (record.capacity() < length) {
+			record = ByteBuffer.allocate(Math.max(length, record.capacity() * 2));
+		}
+		record.clear().limit(length);
+		long position = reader.getRecordStart();
+		while (record.hasRemaining()) {
+			if (source.read(record, position + record.position()) < 0) {
+				throw new IOException("Scores file changed while it was being corrected");
+			}
+		}
+		return record;
+	}
+
+	/**
+	 * Writes the current record with some cells replaced. Every other cell and the line ending are written as they
+	 * are in the file; a replaced cell past the end of a short record gets empty cells before it.
+	 * @param record The record's bytes, from readRecord(...)
+	 * @param columns The cells to replace
+	 * @param values The number to write in each of columns
+	 * @param count How many of columns to replace
+	 */
+	private static void writeRecord(ScoreFileReader reader, byte[] record, int[] columns, int[] values, int count,
+			ByteBuffer pending, FileChannel target) throws IOException {
+		int last = reader.getFieldCount() - 1;
+		for (int j = 0; j < count; j++) {
+			last = Math.max(last, columns[j]);
+		}
+		int start = 0;
+		for (int i = 0; i <= last; i++) {
+			int end = (i < reader.getFieldCount()) ? reader.getFieldByteEnd(i) : start;
+			int replacement = -1;
+			for (int j = 0; j < count; j++) {
+				if (columns[j] == i) {
+					replacement = j;
+					break;
+				}
+			}
+			if (replacement >= 0) {
+				byte[] value = Integer.toString(values[replacement]).getBytes(StandardCharsets.US_ASCII);
+				write(value, 0, value.length, pending, target);
+			} else {
+				write(record, start, end - start, pending, target);
+			}
+			if (i < last) {
+				write(COMMA, 0, 1, pending, target);
+			}
+			start = (i < reader.getFieldCount() - 1) ? end + 1 : end;
+		}
+		int length = (int) (reader.getRecordEnd() - reader.getRecordStart());
+		write(record, reader.getContentBytes(), length - reader.getContentBytes(), pending, target);
+	}
+
+	private static void write(byte[] bytes, int offset, int length, ByteBuffer pending, FileChannel target)
+			throws IOException {
+		while (length > 0) {
+			if (!pending.hasRemaining()) {
+				flush(pending, target);
+			}
+			int chunk = Math.min(length, pending.remaining());
+			pending.put(bytes, offset, chunk);
+			offset += chunk;
+			length -= chunk;
+		}
+	}
+
+	private static void flush(ByteBuffer pending, FileChannel target) throws IOException {
+		pending.flip();
+		while (pending.hasRemaining()) {
+			target.write(pending);
+		}
+		pending.clear();
+	}
+}
@@ -0,0 +1,324 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a scores CSV one row at a time (see ScoreRowSource). The current row's characters are kept in a buffer that
+ * is reused for every row, so memory use does not grow with the size of the file.
+ *
+ * Integer cells are parsed straight from the buffer. Empty, non-numeric, or out of range cells read as MISSING_INT,
+ * the same value Tablesaw uses for a missing int, so they fail the scorers' empty-cell checks. Cells are trimmed of
+ * whitespace the same way String.trim() does, as Timepoint.parse(...) does for the table path.
+ *
+ * Where each record and its cells lie in the file is tracked in UTF-8 bytes, so ScoreFileCorrector can copy the file
+ * through unchanged around the cells it corrects while seeing exactly the cells a streamed crosscheck sees.
+ */
+public class ScoreFileReader implements ScoreRowSource {
+	private final Reader in;
+	private final char[] input = new char[1 << 16];
+	private int inputPosition = 0;
+	private int inputLimit = 0;
+
+	private char[] line = new char[256];
+	private int[] fieldStarts = new int[64];
+	private int[] fieldEnds = new int[64];
+	private int fieldCount = 0;
+	private long rowNumber = 0;
+	private long recordNumber = 0;
+
+	// Positions in the file, in UTF-8 bytes; field ends are relative to the start of the record
+	private long bytesRead = 0;
+	private long recordStart = 0;
+	private int contentBytes = 0;
+	private int[] fieldByteEnds = new int[64];
+
+	private final List<String> headers;
+
+	public ScoreFileReader(Path file) throws IOException {
+		this(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+	}
+
+	public ScoreFileReader(Reader in) throws IOException {
+		this.in = in;
+		if (!readRow()) {
+			throw new IOException("Scores file is empty");
+		}
+		ArrayList<String> headers = new ArrayList<>(fieldCount);
+		for (int i = 0; i < fieldCount; i++) {
+			String header = getString(i).trim();
+			// Strip the byte order mark spreadsheet programs put at the start of the file
+			if (i == 0 && !header.isEmpty() && header.charAt(0) == '\uFEFF') {
+				header = header.substring(1);
+			}
+			headers.add(header);
+		}
+		this.headers = List.copyOf(headers);
+	}
+
+	@Override
+	public List<String> headers() {
+		return headers;
+	}
+
+	@Override
+	public int columnIndex(String header) {
+		return headers.indexOf(header);
+	}
+
+	@Override
+	public boolean next() throws IOException {
+		while (readRow()) {
+			if (fieldCount > 1 || fieldEnds[0] > fieldStarts[0]) {
+				rowNumber++;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public long getRowNumber() {
+		return rowNumber;
+	}
+
+	@Override
+	public int getInt(int column) {
+		if (column < 0 || column >= fieldCount) {
+			return MISSING_INT;
+		}
+		return parseInt(line, fieldStarts[column], fieldEnds[column]);
+	}
+
+	/**
+	 * Parses a whole integer cell, ignoring surrounding whitespace
+	 * @param chars Buffer holding the cell
+	 * @param start Index of the cell's first character
+	 * @param end Index after the cell's last character
+	 * @return The value, or MISSING_INT if the cell is empty, isn't an integer, or doesn't fit in an int
+	 */
+	static int parseInt(char[] chars, int start, int end) {
+		while (start < end && chars[start] <= ' ') {
+			start++;
+		}
+		while (end > start && chars[end - 1] <= ' ') {
+			end--;
+		}
+		if (start == end) {
+			return MISSING_INT;
+		}
+		boolean negative = chars[start] == '-';
+		if (negative && ++start == end) {
+			return MISSING_INT;
+		}
+		int value = 0;
+		for (int i = start; i < end; i++) {
+			char c = chars[i];
+			if (c < '0' || c > '9') {
+				return MISSING_INT;
+			}
+			int digit = c - '0';
+			// A value this large would wrap around into an ordinary looking score
+			if (value > (Integer.MAX_VALUE - digit) / 10) {
+				return MISSING_INT;
+			}
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	@Override
+	public String getString(int column) {
+		if (column < 0 || column >= fieldCount) {
+			return "";
+		}
+		return new String(line, fieldStarts[column], fieldEnds[column] - fieldStarts[column]);
+	}
+
+	/**
+	 * Checks the current cell against a string without creating one
+	 * @return Whether the cell, ignoring surrounding whitespace, equals the value, ignoring case
+	 */
+	public boolean equalsIgnoreCase(int column, String value) {
+		if (column < 0 || column >= fieldCount) {
+			return false;
+		}
+		int start = fieldStarts[column];
+		int end = fieldEnds[column];
+		while (start < end && line[start] <= ' ') {
+			start++;
+		}
+		while (end > start && line[end - 1] <= ' ') {
+			end--;
+		}
+		if (end - start != value.length()) {
+			return false;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			if (Character.toLowerCase(line[start + i]) != Character.toLowerCase(value.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reads a "Timepoint" cell without creating a string, matching it like Timepoint.parse(...)
+	 * @return The timepoint, or null if the cell isn't one
+	 */
+	@Override
+	public Timepoint getTimepoint(int column) {
+		for (Timepoint timepoint : Timepoint.all()) {
+			if (equalsIgnoreCase(column, timepoint.label())) {
+				return timepoint;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * @return The number of the current record counting blank ones and the header, i.e. its spreadsheet row
+	 */
+	long getRecordNumber() {
+		return recordNumber;
+	}
+
+	/**
+	 * @return The number of cells in the current record
+	 */
+	int getFieldCount() {
+		return fieldCount;
+	}
+
+	/**
+	 * @return Where the current record starts in the file, in bytes
+	 */
+	long getRecordStart() {
+		return recordStart;
+	}
+
+	/**
+	 * @return Where the record after the current one starts in the file, in bytes
+	 */
+	long getRecordEnd() {
+		return bytesRead;
+	}
+
+	/**
+	 * @return The length of the current record in bytes, without its line ending
+	 */
+	int getContentBytes() {
+		return contentBytes;
+	}
+
+	/**
+	 * @return Where a cell of the current record ends, quotes and all, in bytes from the start of the record; the next
+	 * cell starts after the comma
+	 */
+	int getFieldByteEnd(int column) {
+		return fieldByteEnds[column];
+	}
+
+	/**
+	 * Reads the next record into the line buffer, unquoting quoted fields in place
+	 * @return Whether a record was read
+	 */
+	private boolean readRow() throws IOException {
+		recordStart = bytesRead;
+		int length = 0;
+		fieldCount = 0;
+		int fieldStart = 0;
+		boolean quoted = false;
+		boolean any = false;
+		int c;
+		while ((c = read()) >= 0) {
+			any = true;
+			if (quoted) {
+				if (c == '"') {
+					int after = peek();
+					if (after == '"') {
+						read();
+					} else {
+						quoted = false;
+						continue;
+					}
+				}
+			} else if (c == '"') {
+				quoted = true;
+				continue;
+			} else if (c == ',') {
+				endField(fieldStart, length, bytesRead - 1);
+				fieldStart = length;
+				continue;
+			} else if (c == '\n' || c == '\r') {
+				long contentEnd = bytesRead - 1;
+				if (c == '\r' && peek() == '\n') {
+					read();
+				}
+				endField(fieldStart, length, contentEnd);
+				break;
+			}
+			if (length == line.length) {
+				line = Arrays.copyOf(line, length * 2);
+			}
+			line[length++] = (char) c;
+		}
+		if (!any) {
+			return false;
+		}
+		if (c < 0) {
+			endField(fieldStart, length, bytesRead); // the last line has no line ending
+		}
+		contentBytes = fieldByteEnds[fieldCount - 1];
+		recordNumber++;
+		return true;
+	}
+
+	private void endField(int start, int end, long byteEnd) {
+		if (fieldCount == fieldStarts.length) {
+			fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+			fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+			fieldByteEnds = Arrays.copyOf(fieldByteEnds, fieldCount * 2);
+		}
+		fieldStarts[fieldCount] = start;
+		fieldEnds[fieldCount] = end;
+		fieldByteEnds[fieldCount] = (int) (byteEnd - recordStart);
+		fieldCount++;
+	}
+
+	private int read() throws IOException {
+		if (inputPosition == inputLimit && !fill()) {
+			return -1;
+		}
+		char c = input[inputPosition++];
+		// A surrogate pair is four bytes, two for each half
+		bytesRead += (c < 0x80) ? 1 : (c < 0x800 || Character.isSurrogate(c)) ? 2 : 3;
+		return c;
+	}
+
+	private int peek() throws IOException {
+		if (inputPosition == inputLimit && !fill()) {
+			return -1;
+		}
+		return input[inputPosition];
+	}
+
+	private boolean fill() throws IOException {
+		int read = in.read(input, 0, input.length);
+		if (read <= 0) {
+			return false;
+		}
+		inputPosition = 0;
+		inputLimit = read;
+		return true;
+	}
+}
@@ -0,0 +1,162 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches a scores file and calls back on a background thread after it is saved. Spreadsheet programs write a file in
+ * bursts (or write a temporary file and rename it over the original), so the callback only runs once the file has
+ * been quiet for the debounce delay, and only if the file's content hash changed since the last callback.
+ */
+public class ScoreFileWatcher implements Closeable {
+	public final static long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+	private final static int HASH_BUFFER_BYTES = 1 << 16;
+	private final static Logger LOGGER = Logger.getLogger(ScoreFileWatcher.class.getName());
+
+	private final Path file;
+	private final long debounceMillis;
+	private final Consumer<Path> onChange;
+	private final WatchService watchService;
+	private final Thread watcher;
+	// Single thread, so callbacks never overlap
+	private final ScheduledThreadPoolExecutor recheck = new ScheduledThreadPoolExecutor(1, r -> {
+		Thread thread = new Thread(r, "rbans-recheck");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private ScheduledFuture<?> pending = null;
+	private boolean closed = false;
+	private long lastHash; // only touched by the recheck thread once watching starts
+
+	/**
+	 * Starts watching. The file's current content counts as already checked.
+	 * @param file The scores file to watch
+	 * @param debounceMillis How long the file must go without changing before onChange runs
+	 * @param onChange Run on a background thread with the file after it changes
+	 */
+	public ScoreFileWatcher(Path file, long debounceMillis, Consumer<Path> onChange) throws IOException {
+		this.file = file.toAbsolutePath();
+		this.debounceMillis = debounceMillis;
+		this.onChange = onChange;
+		this.lastHash = contentHash(this.file);
+		// A recheck still waiting out its debounce delay when the watcher is closed never runs
+		recheck.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		// Only directories can be watched
+		this.watchService = FileSystems.getDefault().newWatchService();
+		this.file.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+		this.watcher = new Thread(this::watch, "rbans-file-watcher");
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+
+	private void watch() {
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+				for (WatchEvent<?> event : key.pollEvents()) {
+					// An overflow may have hidden an event for our file
+					if (event.kind() == OVERFLOW || file.getFileName().equals(event.context())) {
+						schedule();
+					}
+				}
+				if (!key.reset()) {
+					LOGGER.warning("Stopped watching " + file + "; its folder is gone");
+					return;
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// Closed
+		}
+	}
+
+	/**
+	 * Restarts the debounce delay
+	 */
+	private synchronized void schedule() {
+		if (closed) {
+			return;
+		}
+		if (pending != null) {
+			pending.cancel(false);
+		}
+		pending = recheck.schedule(this::recheck, debounceMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private void recheck() {
+		long hash;
+		try {
+			hash = contentHash(file);
+		} catch (IOException e) {
+			// Deleted, or still locked by the program saving it; the next event will try again
+			LOGGER.fine("Could not read " + file + ": " + e.getMessage());
+			return;
+		}
+		if (hash == lastHash) {
+			LOGGER.fine("Skipping " + file + "; its content hasn't changed");
+			return;
+		}
+		try {
+			onChange.accept(file);
+			// Only a recheck that finished counts, so a failed one is tried again on the next save
+			lastHash = hash;
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Recheck of " + file + " failed", e);
+		}
+	}
+
+	/**
+	 * Hashes a file's content. This reads the file once without parsing it, which is much cheaper than crosschecking.
+	 * @return The file's CRC32C in the low bits and its length in the high bits
+	 */
+	static long contentHash(Path file) throws IOException {
+		CRC32C crc = new CRC32C();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_BYTES);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			while (channel.read(buffer) >= 0) {
+				buffer.flip();
+				crc.update(buffer);
+				buffer.clear();
+			}
+			return (channel.size() << 32) ^ crc.getValue();
+		}
+	}
+
+	/**
+	 * Stops watching. A recheck that is already running is allowed to finish; one still waiting is dropped.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			closed = true;
+			if (pending != null) {
+				pending.cancel(false);
+			}
+		}
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			LOGGER.fine("Could not close watch service: " + e.getMessage());
+		}
+		watcher.interrupt();
+		recheck.shutdown();
+	}
+}
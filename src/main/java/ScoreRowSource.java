@@ -0,0 +1,66 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A scores file read one row at a time, whatever its format. Only the current row is held in memory.
+ */
+public interface ScoreRowSource extends Closeable {
+	// Value of an empty or non-numeric cell; the same value Tablesaw uses for a missing int
+	int MISSING_INT = Integer.MIN_VALUE;
+
+	/**
+	 * Opens a scores file by its extension: ".xlsx" workbooks with XlsxScoreReader, anything else as CSV
+	 * @param file A scores file
+	 * @return A source positioned before the first row
+	 */
+	static ScoreRowSource open(Path file) throws IOException {
+		if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".xlsx")) {
+			return new XlsxScoreReader(file);
+		}
+		return new ScoreFileReader(file);
+	}
+
+	List<String> headers();
+
+	/**
+	 * Finds a column by its header
+	 * @param header The header of the column
+	 * @return The index of the column, or -1 if no column has that header
+	 */
+	default int columnIndex(String header) {
+		return headers().indexOf(header);
+	}
+
+	/**
+	 * Advances to the next row, skipping blank rows
+	 * @return Whether there was another row
+	 */
+	boolean next() throws IOException;
+
+	/**
+	 * @return The 1-based number of the current row among the rows next() returned, so not counting the header or
+	 * blank rows
+	 */
+	long getRowNumber();
+
+	/**
+	 * @return The current row's cell as an int, or MISSING_INT if it is empty or not a whole number
+	 */
+	int getInt(int column);
+
+	/**
+	 * @return The current row's cell as text, or "" if it is empty
+	 */
+	String getString(int column);
+
+	/**
+	 * Reads a "Timepoint" cell
+	 * @return The timepoint, or null if the cell isn't one
+	 */
+	default Timepoint getTimepoint(int column) {
+		return Timepoint.parse(getString(column));
+	}
+}
@@ -0,0 +1,335 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves RBANS index scores over HTTP on the loopback interface, so other tools can score subjects without going
+ * through Main. The norm tables are loaded once at startup and shared by every request, and each request is handled on
+ * its own virtual thread.
+ *
+ * Usage: ScoringService [--port n]
+ *
+ * GET /score?timepoint=Baseline&age=45&storyMemory=..&listLearning=..&... scores one subject. Raw scores are named as
+ * in RAW_SCORE_PARAMETERS. The response is a JSON object with each domain's index score and the Sum Index, or null and
+ * an entry in "errors" for a score that can't be calculated.
+ *
+ * POST /crosscheck with a scores CSV as the body crosschecks the whole file as it is uploaded and responds with the
+ * mismatches as CSV, or as JSON lines with ?format=jsonl.
+ *
+ * GET /health responds "ok" once the service is up.
+ *
+ * main(...) turns on TCP_NODELAY for the JDK's HTTP server (-Dsun.net.httpserver.nodelay=true) unless it is set on the
+ * command line, since responses are small and waiting to coalesce packets only adds latency. The property is JVM-wide,
+ * so code that embeds the service instead sets it, or not, as a launch flag.
+ */
+public class ScoringService {
+	public final static int DEFAULT_PORT = 8080;
+
+	// Query parameter of each raw score, in the order of Crosschecker.SCORED_COLUMNS starting at STORY_MEMORY
+	public final static String[] RAW_SCORE_PARAMETERS = {"storyMemory", "listLearning", "lineOrientation", "figureCopy",
+			"picture", "semanticFluency", "digitSpan", "coding", "listRecognition", "listRecall", "storyRecall",
+			"figureRecall"};
+
+	// Every /score parameter: the timepoint, the age, then the raw scores
+	private final static String[] SCORE_PARAMETERS = scoreParameters();
+	private final static String USAGE = "Usage: ScoringService [--port n]";
+	private final static Logger LOGGER = Logger.getLogger(ScoringService.class.getName());
+
+	private final Crosschecker crosschecker;
+	private final RbansScorer scorer;
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * Binds the service without starting it
+	 * @param crosschecker Crosschecker shared by every request
+	 * @param port Port on the loopback interface, or 0 for any free port
+	 */
+	public ScoringService(Crosschecker crosschecker, int port) throws IOException {
+		this.crosschecker = crosschecker;
+		this.scorer = crosschecker.getScorer();
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.setExecutor(executor);
+		server.createContext("/score", handler("GET", this::score));
+		server.createContext("/crosscheck", handler("POST", this::crosscheck));
+		server.createContext("/health", handler("GET", exchange -> respond(exchange, 200, "text/plain", "ok\n")));
+	}
+
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		// Read once, when the first server is made
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+		AsyncLogHandler.install();
+		int port = DEFAULT_PORT;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--port") && i + 1 < args.length) {
+				try {
+					port = Integer.parseInt(args[++i]);
+				} catch (NumberFormatException e) {
+					port = -1;
+				}
+			} else {
+				port = -1;
+			}
+			if (port < 0 || port > 65535) {
+				System.err.println(USAGE);
+				System.exit(BatchCrosscheck.EXIT_ERROR);
+			}
+		}
+
+		ScoringService service;
+		try {
+			service = new ScoringService(new Crosschecker(new RbansScorer(NormTableRegistry.openDefault())), port);
+		} catch (IOException e) {
+			System.err.printf("Could not start scoring service: %s\n", e.getMessage());
+			System.exit(BatchCrosscheck.EXIT_ERROR);
+			return;
+		}
+		service.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(service::stop, "rbans-service-stop"));
+		System.err.printf("Scoring service listening on http://%s:%d\n", service.getAddress().getHostString(),
+				service.getAddress().getPort());
+	}
+
+	private static String[] scoreParameters() {
+		String[] names = new String[RAW_SCORE_PARAMETERS.length + 2];
+		names[0] = "timepoint";
+		names[1] = "age";
+		System.arraycopy(RAW_SCORE_PARAMETERS, 0, names, 2, RAW_SCORE_PARAMETERS.length);
+		return names;
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stops accepting requests, giving requests in progress a second to finish
+	 */
+	public void stop() {
+		server.stop(1);
+		executor.shutdown();
+	}
+
+	public InetSocketAddress getAddress() {
+		return server.getAddress();
+	}
+
+	/**
+	 * Handles GET /score
+	 */
+	private void score(HttpExchange exchange) throws IOException {
+		String[] parameters = new String[SCORE_PARAMETERS.length];
+		readQuery(exchange.getRequestURI().getRawQuery(), SCORE_PARAMETERS, parameters);
+
+		Timepoint timepoint = Timepoint.parse(parameters[0]);
+		if (timepoint == null) {
+			respondError(exchange, 400, "timepoint must be one of Baseline, Mid, or Post");
+			return;
+		}
+		int age = parseInt(parameters[1]);
+		int ageBand = RbansScorer.ageBand(age);
+		if (!RbansScorer.isScore(ageBand)) {
+			respondError(exchange, 400, "age is not within RBANS age range");
+			return;
+		}
+		// Laid out like a scores file row so the raw scores can be found by Crosschecker's column indexes
+		int[] values = new int[Crosschecker.SCORED_COLUMNS.length];
+		for (int i = 0; i < RAW_SCORE_PARAMETERS.length; i++) {
+			values[Crosschecker.STORY_MEMORY + i] = parseInt(parameters[i + 2]);
+		}
+
+		StringBuilder json = new StringBuilder(256);
+		StringBuilder errors = new StringBuilder();
+		json.append("{\"timepoint\":\"").append(timepoint.label()).append("\",\"age\":").append(age).append(",\"scores\":{");
+		int[] scores = new int[Domain.values().length];
+		for (Domain domain : Domain.values()) {
+			int score = score(domain, timepoint, ageBand, values, scores);
+			scores[domain.ordinal()] = score;
+			if (domain.ordinal() > 0) {
+				json.append(',');
+			}
+			json.append('"').append(domain.label()).append("\":");
+			if (RbansScorer.isScore(score)) {
+				json.append(score);
+			} else {
+				json.append("null");
+				errors.append((errors.length() == 0) ? "" : ",").append('"').append(domain.label()).append("\":\"")
+						.append(!domain.hasNormTable() ? "needs every index score"
+								: (score == RbansScorer.EMPTY_CELL) ? "missing raw score" : "raw score outside the norm tables")
+						.append('"');
+			}
+		}
+		json.append("},\"errors\":{").append(errors).append("}}\n");
+		respond(exchange, 200, "application/json", json.toString());
+	}
+
+	/**
+	 * @param scores The scores of the domains before this one
+	 */
+	private int score(Domain domain, Timepoint timepoint, int ageBand, int[] values, int[] scores) {
+		return switch (domain) {
+			case IMMEDIATE_MEMORY -> scorer.calculateImmediateMemoryScore(timepoint, ageBand,
+					values[Crosschecker.STORY_MEMORY], values[Crosschecker.LIST_LEARNING]);
+			case VISUOSPATIAL -> scorer.calculateVisuospatialScore(timepoint, ageBand,
+					values[Crosschecker.LINE_ORIENTATION], values[Crosschecker.FIGURE_COPY]);
+			case LANGUAGE -> scorer.calculateLanguageScore(timepoint, ageBand,
+					values[Crosschecker.PICTURE], values[Crosschecker.SEMANTIC_FLUENCY]);
+			case ATTENTION -> scorer.calculateAttentionScore(timepoint, ageBand,
+					values[Crosschecker.DIGIT_SPAN], values[Crosschecker.CODING]);
+			case DELAYED_MEMORY -> scorer.calculateDelayedMemoryScore(timepoint, ageBand,
+					values[Crosschecker.LIST_RECOGNITION], values[Crosschecker.LIST_RECALL],
+					values[Crosschecker.STORY_RECALL], values[Crosschecker.FIGURE_RECALL]);
+			case SUM_INDEX -> sumIndex(scores);
+		};
+	}
+
+	private static int sumIndex(int[] scores) {
+		for (Domain domain : Domain.values()) {
+			if (domain.hasNormTable() && !RbansScorer.isScore(scores[domain.ordinal()])) {
+				return RbansScorer.EMPTY_CELL;
+			}
+		}
+		return Crosschecker.sumIndex(scores[Domain.IMMEDIATE_MEMORY.ordinal()], scores[Domain.VISUOSPATIAL.ordinal()],
+				scores[Domain.LANGUAGE.ordinal()], scores[Domain.ATTENTION.ordinal()],
+				scores[Domain.DELAYED_MEMORY.ordinal()]);
+	}
+
+	/**
+	 * Handles POST /crosscheck. The upload is scored as it arrives, and mismatches are sent back as they are found.
+	 */
+	private void crosscheck(HttpExchange exchange) throws IOException {
+		String[] format = new String[1];
+		readQuery(exchange.getRequestURI().getRawQuery(), new String[] {"format"}, format);
+		boolean jsonLines = "jsonl".equals(format[0]);
+
+		ScoreFileReader reader;
+		try {
+			reader = new ScoreFileReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			// e.g. an empty upload
+			respondError(exchange, 400, e.getMessage());
+			return;
+		}
+		try (reader) {
+			List<String> missingColumns = Crosschecker.hasCorrectCsvHeaders(Crosschecker.EXPECTED_HEADERS, reader.headers());
+			if (!missingColumns.isEmpty()) {
+				respondError(exchange, 400, "Some headers are not present! " + Arrays.toString(missingColumns.toArray()));
+				return;
+			}
+			exchange.getResponseHeaders().set("Content-Type", jsonLines ? "application/x-ndjson" : "text/csv");
+			// Length 0 sends the response in chunks, since it isn't known until the upload has been read
+			exchange.sendResponseHeaders(200, 0);
+			try (MismatchReportWriter writer = new MismatchReportWriter(
+					new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), jsonLines)) {
+				writer.setSourceFile("upload");
+				crosschecker.crosscheck(reader, writer, () -> {});
+			}
+		}
+	}
+
+	/**
+	 * Wraps a handler so it only answers one method and never leaves an exchange open after an error
+	 */
+	private static HttpHandler handler(String method, HttpHandler handler) {
+		return exchange -> {
+			try {
+				if (!exchange.getRequestMethod().equals(method)) {
+					exchange.getResponseHeaders().set("Allow", method);
+					respondError(exchange, 405, "Use " + method);
+					return;
+				}
+				handler.handle(exchange);
+			} catch (IOException | RuntimeException e) {
+				LOGGER.log(Level.WARNING, "Request to " + exchange.getRequestURI() + " failed", e);
+				// Only possible if the response hasn't started
+				if (exchange.getResponseCode() < 0) {
+					respondError(exchange, 500, String.valueOf(e.getMessage()));
+				}
+			} finally {
+				// Only once any error response has been sent
+				exchange.close();
+			}
+		};
+	}
+
+	/**
+	 * Picks the given parameters out of a raw query string
+	 * @param names Parameters to look for
+	 * @param values Receives each parameter's decoded value, or null if it isn't in the query
+	 */
+	private static void readQuery(String rawQuery, String[] names, String[] values) {
+		if (rawQuery == null) {
+			return;
+		}
+		int start = 0;
+		while (start <= rawQuery.length()) {
+			int end = rawQuery.indexOf('&', start);
+			if (end < 0) {
+				end = rawQuery.length();
+			}
+			int equals = rawQuery.indexOf('=', start);
+			if (equals > start && equals < end) {
+				String name = rawQuery.substring(start, equals);
+				for (int i = 0; i < names.length; i++) {
+					if (names[i].equals(name)) {
+						values[i] = URLDecoder.decode(rawQuery.substring(equals + 1, end), StandardCharsets.UTF_8);
+					}
+				}
+			}
+			start = end + 1;
+		}
+	}
+
+	/**
+	 * @return The value as an int, or MISSING_INT if it's missing or not a whole number
+	 */
+	private static int parseInt(String value) {
+		if (value == null) {
+			return ScoreRowSource.MISSING_INT;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			return ScoreRowSource.MISSING_INT;
+		}
+	}
+
+	private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+		StringBuilder json = new StringBuilder("{\"error\":\"");
+		for (int i = 0; i < message.length(); i++) {
+			char c = message.charAt(i);
+			if (c == '"' || c == '\\') {
+				json.append('\\');
+			}
+			json.append((c < 0x20) ? ' ' : c);
+		}
+		respond(exchange, status, "application/json", json.append("\"}\n").toString());
+	}
+
+	private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
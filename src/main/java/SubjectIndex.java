@@ -0,0 +1,213 @@
+import java.util.Arrays;
+
+/**
+ * Collects each subject's calculated scores at every timepoint while a file is crosschecked, so Baseline, Mid and Post
+ * rows can be compared without sorting or joining the file afterwards.
+ *
+ * Subject IDs are kept in an open-addressing hash table of ints that points into dense arrays, one entry per subject in
+ * the order subjects were first seen. Each entry has a slot per timepoint holding the row count and the first row's
+ * scores in Domain order. Not safe to share between threads.
+ *
+ * Rows that can't be placed are counted as invalid instead: rows without a whole-number Subject ID for the file, and
+ * rows with an unknown timepoint for their subject.
+ */
+public class SubjectIndex {
+	// Score of a slot whose row couldn't be scored, or that has no row
+	public final static int NOT_SCORED = Integer.MIN_VALUE;
+
+	private final static Timepoint[] TIMEPOINTS = Timepoint.values();
+	private final static int DOMAIN_COUNT = Domain.values().length;
+	private final static int NO_ENTRY = -1;
+	private final static int INITIAL_CAPACITY = 1024; // a power of two
+
+	private int[] table; // entry index of each hash slot, or NO_ENTRY
+	private int size = 0;
+	private int[] subjectIds;
+	private byte[] rowCounts; // per entry and timepoint, stops at Byte.MAX_VALUE
+	private int[] scores; // per entry, timepoint and domain
+	private int[] unknownTimepointRows; // per entry
+	private int rowsWithoutSubjectId = 0;
+
+	public SubjectIndex() {
+		table = new int[INITIAL_CAPACITY * 2];
+		Arrays.fill(table, NO_ENTRY);
+		subjectIds = new int[INITIAL_CAPACITY];
+		rowCounts = new byte[INITIAL_CAPACITY * TIMEPOINTS.length];
+		scores = new int[INITIAL_CAPACITY * TIMEPOINTS.length * DOMAIN_COUNT];
+		unknownTimepointRows = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Records a row whose index scores were calculated. Only the first row at each timepoint keeps its scores.
+	 */
+	public void add(int subjectId, Timepoint timepoint, int immediateMemoryScore, int visuospatialScore,
+			int languageScore, int attentionScore, int delayedMemoryScore) {
+		int slot = countRow(subjectId, timepoint);
+		if (slot < 0) {
+			return;
+		}
+		int base = slot * DOMAIN_COUNT;
+		scores[base + Domain.IMMEDIATE_MEMORY.ordinal()] = immediateMemoryScore;
+		scores[base + Domain.VISUOSPATIAL.ordinal()] = visuospatialScore;
+		scores[base + Domain.LANGUAGE.ordinal()] = languageScore;
+		scores[base + Domain.ATTENTION.ordinal()] = attentionScore;
+		scores[base + Domain.DELAYED_MEMORY.ordinal()] = delayedMemoryScore;
+		scores[base + Domain.SUM_INDEX.ordinal()] = Crosschecker.sumIndex(immediateMemoryScore, visuospatialScore,
+				languageScore, attentionScore, delayedMemoryScore);
+	}
+
+	/**
+	 * Records a row that couldn't be scored, so the timepoint still counts as present
+	 */
+	public void addUnscored(int subjectId, Timepoint timepoint) {
+		countRow(subjectId, timepoint);
+	}
+
+	/**
+	 * Records a row whose "Timepoint" isn't one, as an invalid row of its subject
+	 */
+	public void addUnknownTimepoint(int subjectId) {
+		if (subjectId == ScoreRowSource.MISSING_INT) {
+			rowsWithoutSubjectId++;
+			return;
+		}
+		unknownTimepointRows[entry(subjectId)]++;
+	}
+
+	/**
+	 * @return The first-row slot to fill in, or -1 if the timepoint already had a row or the row has no Subject ID
+	 */
+	private int countRow(int subjectId, Timepoint timepoint) {
+		// An empty or non-numeric Subject ID would otherwise gather every such row into one made-up subject
+		if (subjectId == ScoreRowSource.MISSING_INT) {
+			rowsWithoutSubjectId++;
+			return -1;
+		}
+		int slot = entry(subjectId) * TIMEPOINTS.length + timepoint.ordinal();
+		byte count = rowCounts[slot];
+		if (count < Byte.MAX_VALUE) {
+			rowCounts[slot] = (byte) (count + 1);
+		}
+		return (count == 0) ? slot : -1;
+	}
+
+	/**
+	 * Finds a subject's entry, adding it if it's new
+	 */
+	private int entry(int subjectId) {
+		int mask = table.length - 1;
+		for (int i = hash(subjectId) & mask; ; i = (i + 1) & mask) {
+			int entry = table[i];
+			if (entry == NO_ENTRY) {
+				return insert(i, subjectId);
+			} else if (subjectIds[entry] == subjectId) {
+				return entry;
+			}
+		}
+	}
+
+	private int insert(int hashSlot, int subjectId) {
+		if (size == subjectIds.length) {
+			grow();
+			return entry(subjectId); // the table was rebuilt, so hashSlot is stale
+		}
+		int entry = size++;
+		table[hashSlot] = entry;
+		subjectIds[entry] = subjectId;
+		Arrays.fill(scores, entry * TIMEPOINTS.length * DOMAIN_COUNT, size * TIMEPOINTS.length * DOMAIN_COUNT, NOT_SCORED);
+		return entry;
+	}
+
+	/**
+	 * Doubles the entry arrays and rebuilds the table at twice their length, keeping it at most half full
+	 */
+	private void grow() {
+		int capacity = subjectIds.length * 2;
+		subjectIds = Arrays.copyOf(subjectIds, capacity);
+		rowCounts = Arrays.copyOf(rowCounts, capacity * TIMEPOINTS.length);
+		scores = Arrays.copyOf(scores, capacity * TIMEPOINTS.length * DOMAIN_COUNT);
+		unknownTimepointRows = Arrays.copyOf(unknownTimepointRows, capacity);
+		table = new int[capacity * 2];
+		Arrays.fill(table, NO_ENTRY);
+		int mask = table.length - 1;
+		for (int entry = 0; entry < size; entry++) {
+			int i = hash(subjectIds[entry]) & mask;
+			while (table[i] != NO_ENTRY) {
+				i = (i + 1) & mask;
+			}
+			table[i] = entry;
+		}
+	}
+
+	static int hash(int subjectId) {
+		// Subject IDs are often sequential; spread them over the whole table
+		int h = subjectId * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @return The number of subjects
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The number of rows left out because their Subject ID is empty or not a whole number
+	 */
+	public int getRowsWithoutSubjectId() {
+		return rowsWithoutSubjectId;
+	}
+
+	/**
+	 * @return The number of the subject's rows left out because their "Timepoint" isn't one
+	 */
+	public int getUnknownTimepointRows(int entry) {
+		return unknownTimepointRows[entry];
+	}
+
+	/**
+	 * @param entry 0 for the first subject seen, up to size() - 1 for the last
+	 */
+	public int getSubjectId(int entry) {
+		return subjectIds[entry];
+	}
+
+	/**
+	 * @return How many rows the subject has at a timepoint, up to Byte.MAX_VALUE
+	 */
+	public int getRowCount(int entry, Timepoint timepoint) {
+		return rowCounts[entry * TIMEPOINTS.length + timepoint.ordinal()];
+	}
+
+	/**
+	 * @return The score calculated from the subject's first row at a timepoint, or NOT_SCORED
+	 */
+	public int getScore(int entry, Timepoint timepoint, Domain domain) {
+		return scores[(entry * TIMEPOINTS.length + timepoint.ordinal()) * DOMAIN_COUNT + domain.ordinal()];
+	}
+
+	/**
+	 * @return The change in a score from one timepoint to another, or NOT_SCORED if either wasn't scored
+	 */
+	public int getChange(int entry, Timepoint from, Timepoint to, Domain domain) {
+		int before = getScore(entry, from, domain);
+		int after = getScore(entry, to, domain);
+		return (before == NOT_SCORED || after == NOT_SCORED) ? NOT_SCORED : after - before;
+	}
+
+	/**
+	 * @return Whether the subject has no row at some timepoint, more than one, or a row with an unknown timepoint
+	 */
+	public boolean isIncomplete(int entry) {
+		if (unknownTimepointRows[entry] > 0) {
+			return true;
+		}
+		for (Timepoint timepoint : TIMEPOINTS) {
+			if (getRowCount(entry, timepoint) != 1) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
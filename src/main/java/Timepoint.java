@@ -0,0 +1,54 @@
+/**
+ * The test stage a row was scored at. The ordinal of each timepoint is its index in NormTableRegistry.TEST_STAGES.
+ */
+public enum Timepoint {
+	BASELINE("Baseline"),
+	MID("Mid"),
+	POST("Post");
+
+	// values() copies its array on every call
+	private final static Timepoint[] TIMEPOINTS = values();
+
+	private final String label;
+
+	Timepoint(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * @return The timepoint as it is written in the "Timepoint" column
+	 */
+	public String label() {
+		return label;
+	}
+
+	/**
+	 * Finds a timepoint by name, ignoring case
+	 * @param name A "Timepoint" cell such as "Baseline"
+	 * @return The timepoint, or null if the name isn't one
+	 */
+	public static Timepoint parse(String name) {
+		if (name == null) {
+			return null;
+		}
+		String trimmed = name.trim();
+		for (Timepoint timepoint : TIMEPOINTS) {
+			if (timepoint.label.equalsIgnoreCase(trimmed)) {
+				return timepoint;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return Every timepoint, in order. The array is shared and must not be modified.
+	 */
+	static Timepoint[] all() {
+		return TIMEPOINTS;
+	}
+
+	@Override
+	public String toString() {
+		return label;
+	}
+}
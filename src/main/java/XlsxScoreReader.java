@@ -0,0 +1,356 @@
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads the first sheet of an Excel workbook (.xlsx) one row at a time, so workbooks can be crosschecked without
+ * exporting them to CSV first. The sheet's XML is inflated straight out of the zip and read with StAX; no DOM is built
+ * and only the current row's cells are kept. The first non-blank row holds the headers.
+ *
+ * The workbook's shared strings (text cells; Excel stores each distinct text once) are read up front. Scores files
+ * repeat a handful of texts such as "Baseline", so this stays small however many rows the sheet has.
+ */
+public class XlsxScoreReader implements ScoreRowSource {
+	private final static String WORKBOOK = "xl/workbook.xml";
+	private final static String WORKBOOK_RELATIONSHIPS = "xl/_rels/workbook.xml.rels";
+	private final static String RELATIONSHIPS_NAMESPACE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+	private final static String SHARED_STRINGS_TYPE = RELATIONSHIPS_NAMESPACE + "/sharedStrings";
+	private final static XMLInputFactory XML = createXmlInputFactory();
+
+	private final ZipFile zip;
+	private final InputStream sheetInput;
+	private final XMLStreamReader sheet;
+	private final String[] sharedStrings;
+	private final List<String> headers;
+
+	private String[] cells = new String[64];
+	private int cellCount = 0;
+	private long sheetRow = 0; // the "r" of the current row, 1-based
+	private long rowNumber = 0;
+	private boolean sheetDone = false;
+
+	public XlsxScoreReader(Path file) throws IOException {
+		zip = new ZipFile(file.toFile());
+		try {
+			Map<String, String> relationships = new HashMap<>();
+			String sharedStringsPart = readRelationships(relationships);
+			String sheetPart = relationships.get(firstSheetRelationship());
+			if (sheetPart == null) {
+				throw new IOException("Workbook has no sheets");
+			}
+			sharedStrings = (sharedStringsPart == null) ? new String[0] : readSharedStrings(sharedStringsPart);
+			sheetInput = zip.getInputStream(entry(sheetPart));
+			sheet = XML.createXMLStreamReader(sheetInput);
+			if (!next()) {
+				throw new IOException("Scores workbook is empty");
+			}
+			ArrayList<String> headers = new ArrayList<>(cellCount);
+			for (int i = 0; i < cellCount; i++) {
+				headers.add(getString(i).trim());
+			}
+			this.headers = List.copyOf(headers);
+			rowNumber = 0; // the header isn't a row
+		} catch (XMLStreamException e) {
+			zip.close();
+			throw new IOException("Not a valid workbook: " + e.getMessage(), e);
+		} catch (IOException | RuntimeException e) {
+			zip.close();
+			throw e;
+		}
+	}
+
+	private static XMLInputFactory createXmlInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newFactory();
+		// Workbooks never need a DTD; refusing them rules out entity expansion attacks
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		return factory;
+	}
+
+	@Override
+	public List<String> headers() {
+		return headers;
+	}
+
+	@Override
+	public boolean next() throws IOException {
+		try {
+			while (readRow()) {
+				for (int i = 0; i < cellCount; i++) {
+					if (cells[i] != null && !cells[i].isEmpty()) {
+						rowNumber++;
+						return true;
+					}
+				}
+			}
+			return false;
+		} catch (XMLStreamException e) {
+			throw new IOException(String.format("Sheet row %d is not valid: %s", sheetRow, e.getMessage()), e);
+		}
+	}
+
+	@Override
+	public long getRowNumber() {
+		return rowNumber;
+	}
+
+	@Override
+	public int getInt(int column) {
+		String cell = (column < 0 || column >= cellCount) ? null : cells[column];
+		if (cell == null) {
+			return MISSING_INT;
+		}
+		String value = cell.trim();
+		if (value.isEmpty()) {
+			return MISSING_INT;
+		}
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			// Numeric cells are stored as doubles, e.g. "12.0" or a formula's "11.999999999999998"
+		}
+		try {
+			double number = Double.parseDouble(value);
+			double whole = Math.rint(number);
+			if (Math.abs(number - whole) < 1e-9 && whole >= Integer.MIN_VALUE && whole <= Integer.MAX_VALUE) {
+				return (int) whole;
+			}
+		} catch (NumberFormatException e) {
+			// Text
+		}
+		return MISSING_INT;
+	}
+
+	@Override
+	public String getString(int column) {
+		if (column < 0 || column >= cellCount || cells[column] == null) {
+			return "";
+		}
+		return cells[column];
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			sheet.close();
+		} catch (XMLStreamException e) {
+			// The zip is closed below either way
+		}
+		sheetInput.close();
+		zip.close();
+	}
+
+	/**
+	 * Reads the next &lt;row&gt; of the sheet into cells
+	 * @return Whether a row was read
+	 */
+	private boolean readRow() throws XMLStreamException {
+		if (sheetDone) {
+			return false;
+		}
+		// Find the next row
+		while (true) {
+			if (!sheet.hasNext()) {
+				sheetDone = true;
+				return false;
+			}
+			int event = sheet.next();
+			if (event == XMLStreamConstants.START_ELEMENT && sheet.getLocalName().equals("row")) {
+				break;
+			} else if (event == XMLStreamConstants.END_ELEMENT && sheet.getLocalName().equals("sheetData")) {
+				sheetDone = true;
+				return false;
+			}
+		}
+		String rowReference = sheet.getAttributeValue(null, "r");
+		sheetRow = (rowReference == null) ? sheetRow + 1 : Long.parseLong(rowReference);
+		Arrays.fill(cells, 0, cellCount, null);
+		cellCount = 0;
+
+		int nextColumn = 0;
+		while (sheet.hasNext()) {
+			int event = sheet.next();
+			if (event == XMLStreamConstants.END_ELEMENT && sheet.getLocalName().equals("row")) {
+				break;
+			} else if (event == XMLStreamConstants.START_ELEMENT && sheet.getLocalName().equals("c")) {
+				String cellReference = sheet.getAttributeValue(null, "r");
+				int column = (cellReference == null) ? nextColumn : referenceColumn(cellReference);
+				String type = sheet.getAttributeValue(null, "t");
+				setCell(column, readCell(type));
+				nextColumn = column + 1;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the value of the &lt;c&gt; element the sheet is on, leaving the sheet on its end tag
+	 * @param type The cell's "t" attribute, or null for a number
+	 */
+	private String readCell(String type) throws XMLStreamException {
+		String value = null;
+		StringBuilder inline = null;
+		int depth = 1;
+		while (depth > 0) {
+			int event = sheet.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				String name = sheet.getLocalName();
+				if (name.equals("v")) {
+					value = sheet.getElementText();
+				} else if (name.equals("t")) {
+					// Inline string, possibly split into rich text runs
+					if (inline == null) {
+						inline = new StringBuilder();
+					}
+					inline.append(sheet.getElementText());
+				} else {
+					depth++;
+				}
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+		if ("inlineStr".equals(type)) {
+			return (inline == null) ? null : inline.toString();
+		} else if ("s".equals(type) && value != null) {
+			int index = Integer.parseInt(value.trim());
+			if (index < 0 || index >= sharedStrings.length) {
+				throw new XMLStreamException("Shared string " + index + " does not exist");
+			}
+			return sharedStrings[index];
+		}
+		return value;
+	}
+
+	private void setCell(int column, String value) {
+		if (column >= cells.length) {
+			cells = Arrays.copyOf(cells, Math.max(cells.length * 2, column + 1));
+		}
+		cells[column] = value;
+		cellCount = Math.max(cellCount, column + 1);
+	}
+
+	/**
+	 * @param cellReference A cell reference such as "AB12"
+	 * @return The 0-based index of its column, e.g. 27 for "AB"
+	 */
+	static int referenceColumn(String cellReference) {
+		int column = 0;
+		for (int i = 0; i < cellReference.length(); i++) {
+			char c = cellReference.charAt(i);
+			if (c < 'A' || c > 'Z') {
+				break;
+			}
+			column = column * 26 + (c - 'A' + 1);
+		}
+		return column - 1;
+	}
+
+	/**
+	 * @return The relationship id of the workbook's first sheet
+	 */
+	private String firstSheetRelationship() throws IOException, XMLStreamException {
+		try (InputStream in = zip.getInputStream(entry(WORKBOOK))) {
+			XMLStreamReader workbook = XML.createXMLStreamReader(in);
+			try {
+				while (workbook.hasNext()) {
+					if (workbook.next() == XMLStreamConstants.START_ELEMENT && workbook.getLocalName().equals("sheet")) {
+						return workbook.getAttributeValue(RELATIONSHIPS_NAMESPACE, "id");
+					}
+				}
+				return null;
+			} finally {
+				workbook.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads the workbook's relationships into a map from id to the part's path in the zip
+	 * @return The path of the shared strings part, or null if the workbook has none
+	 */
+	private String readRelationships(Map<String, String> relationships) throws IOException, XMLStreamException {
+		String sharedStrings = null;
+		try (InputStream in = zip.getInputStream(entry(WORKBOOK_RELATIONSHIPS))) {
+			XMLStreamReader rels = XML.createXMLStreamReader(in);
+			try {
+				while (rels.hasNext()) {
+					if (rels.next() == XMLStreamConstants.START_ELEMENT && rels.getLocalName().equals("Relationship")) {
+						String target = rels.getAttributeValue(null, "Target");
+						// Targets are relative to xl/ unless they start with a slash
+						String part = target.startsWith("/") ? target.substring(1) : "xl/" + target;
+						relationships.put(rels.getAttributeValue(null, "Id"), part);
+						if (SHARED_STRINGS_TYPE.equals(rels.getAttributeValue(null, "Type"))) {
+							sharedStrings = part;
+						}
+					}
+				}
+			} finally {
+				rels.close();
+			}
+		}
+		return sharedStrings;
+	}
+
+	private String[] readSharedStrings(String part) throws IOException, XMLStreamException {
+		ArrayList<String> strings = new ArrayList<>();
+		try (InputStream in = zip.getInputStream(entry(part))) {
+			XMLStreamReader reader = XML.createXMLStreamReader(in);
+			try {
+				StringBuilder text = null;
+				while (reader.hasNext()) {
+					int event = reader.next();
+					if (event == XMLStreamConstants.START_ELEMENT) {
+						String name = reader.getLocalName();
+						if (name.equals("si")) {
+							text = new StringBuilder();
+						} else if (name.equals("t") && text != null) {
+							text.append(reader.getElementText());
+						} else if (name.equals("rPh")) {
+							// Phonetic guides aren't part of the text
+							skipElement(reader);
+						}
+					} else if (event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("si")) {
+						strings.add(text.toString());
+						text = null;
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		}
+		return strings.toArray(new String[0]);
+	}
+
+	private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	private ZipEntry entry(String name) throws IOException {
+		ZipEntry entry = zip.getEntry(name);
+		if (entry == null) {
+			throw new IOException("Workbook is missing " + name);
+		}
+		return entry;
+	}
+}
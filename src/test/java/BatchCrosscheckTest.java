@@ -0,0 +1,73 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks the exit codes scripts rely on. Files are streamed, so the checks don't depend on Tablesaw's CSV parsing.
+ */
+class BatchCrosscheckTest {
+	private final static Path SAMPLE = Path.of(NormTableRegistry.locate(NormTableRegistry.DEFAULT_RESOURCE_DIRECTORY),
+			"RBANS_Crosscheck.csv");
+
+	@TempDir
+	Path temporary;
+
+	@Test
+	void exitsOkWhenEveryScoreMatches() throws IOException {
+		// Subjects 101 and 102 have no mismatches at Baseline
+		List<String> lines = Files.readAllLines(SAMPLE, StandardCharsets.UTF_8);
+		Path scores = Files.write(temporary.resolve("scores.csv"), lines.subList(0, 3), StandardCharsets.UTF_8);
+		Path report = temporary.resolve("report.csv");
+		assertEquals(BatchCrosscheck.EXIT_OK, crosscheck(report, scores));
+		assertEquals(1, Files.readAllLines(report, StandardCharsets.UTF_8).size());
+	}
+
+	@Test
+	void exitsWithMismatchesWhenAScoreIsWrong() throws IOException {
+		Path report = temporary.resolve("report.csv");
+		assertEquals(BatchCrosscheck.EXIT_MISMATCHES, crosscheck(report, SAMPLE));
+		assertEquals(21, Files.readAllLines(report, StandardCharsets.UTF_8).size());
+
+		assertEquals(BatchCrosscheck.EXIT_MISMATCHES, BatchCrosscheck.run(new String[] {"--stream", "--threads", "4",
+				"--report", report.toString(), SAMPLE.toString()}));
+		assertEquals(21, Files.readAllLines(report, StandardCharsets.UTF_8).size());
+	}
+
+	@Test
+	void exitsWithErrorForBadArguments() {
+		assertEquals(BatchCrosscheck.EXIT_ERROR, BatchCrosscheck.run(new String[0]));
+		assertEquals(BatchCrosscheck.EXIT_ERROR, BatchCrosscheck.run(new String[] {"--threads", "0", SAMPLE.toString()}));
+		assertEquals(BatchCrosscheck.EXIT_ERROR, BatchCrosscheck.run(new String[] {"--fast", SAMPLE.toString()}));
+	}
+
+	@Test
+	void exitsWithErrorWhenAFileCantBeChecked() throws IOException {
+		Path report = temporary.resolve("report.csv");
+		assertEquals(BatchCrosscheck.EXIT_ERROR, crosscheck(report, temporary.resolve("missing.csv")));
+
+		Path noHeaders = Files.writeString(temporary.resolve("no-headers.csv"), "Subject ID,Age\n101,39\n");
+		assertEquals(BatchCrosscheck.EXIT_ERROR, crosscheck(report, noHeaders));
+
+		// An error outranks the mismatches found in the other file
+		assertEquals(BatchCrosscheck.EXIT_ERROR, crosscheck(report, SAMPLE, noHeaders));
+		assertEquals(21, Files.readAllLines(report, StandardCharsets.UTF_8).size());
+	}
+
+	private static int crosscheck(Path report, Path... scores) {
+		String[] args = new String[scores.length + 3];
+		args[0] = "--stream";
+		args[1] = "--report";
+		args[2] = report.toString();
+		for (int i = 0; i < scores.length; i++) {
+			args[i + 3] = scores[i].toString();
+		}
+		return BatchCrosscheck.run(args);
+	}
+}
@@ -0,0 +1,152 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that a compiled pack holds exactly the cells of the norm table CSVs, read here independently of NormTablePack
+ */
+class NormTablePackTest {
+	private final static String RESOURCES = NormTableRegistry.locate(NormTableRegistry.DEFAULT_RESOURCE_DIRECTORY);
+
+	@TempDir
+	Path temporary;
+
+	@Test
+	void packHoldsEveryCsvCell() throws IOException {
+		Path packFile = writePack(RESOURCES);
+		// Fails here rather than letting open(...) fall back to the CSVs
+		NormTablePack.checkSources(NormTablePack.open(packFile), RESOURCES);
+		NormTableRegistry registry = NormTableRegistry.open(packFile.toString(), RESOURCES);
+		for (int stage = 0; stage < NormTableRegistry.TEST_STAGES.length; stage++) {
+			for (int test = 0; test < NormTableRegistry.TESTS.length; test++) {
+				for (int ageRange = 0; ageRange < NormTableRegistry.AGE_RANGES.length; ageRange++) {
+					Path csv = csv(Path.of(RESOURCES), stage, test, ageRange);
+					int table = NormTableRegistry.tableIndex(stage, test, ageRange);
+					int[][] expected = expandedCells(csv);
+					assertEquals(expected.length, registry.rowCount(table), csv + " rows");
+					assertEquals(expected[0].length, registry.columnCount(table), csv + " columns");
+					for (int row = 0; row < expected.length; row++) {
+						for (int column = 0; column < expected[row].length; column++) {
+							assertEquals(expected[row][column], registry.lookup(table, column, row),
+									String.format("%s row %d column %d", csv, row, column));
+						}
+					}
+					assertEquals(NormTableRegistry.OUT_OF_RANGE, registry.lookup(table, expected[0].length, 0));
+					assertEquals(NormTableRegistry.OUT_OF_RANGE, registry.lookup(table, 0, expected.length));
+				}
+			}
+		}
+	}
+
+	@Test
+	void bucketColumnsAreExpanded() throws IOException {
+		NormTableRegistry registry = NormTableRegistry.load(RESOURCES);
+		int language = NormTableRegistry.tableIndex(0, NormTableRegistry.LANGUAGE, 0);
+		// "0" to "8" and "9-10"
+		assertEquals(11, registry.columnCount(language));
+		int delayedMemory = NormTableRegistry.tableIndex(0, NormTableRegistry.DELAYED_MEMORY, 0);
+		// "0" to "18" and "19-20"
+		assertEquals(21, registry.columnCount(delayedMemory));
+		for (int row = 0; row < registry.rowCount(language); row++) {
+			assertEquals(registry.lookup(language, 9, row), registry.lookup(language, 10, row));
+		}
+		for (int row = 0; row < registry.rowCount(delayedMemory); row++) {
+			assertEquals(registry.lookup(delayedMemory, 19, row), registry.lookup(delayedMemory, 20, row));
+		}
+	}
+
+	@Test
+	void languageClampsToTheLastRowAndColumn() throws IOException {
+		RbansScorer scorer = new RbansScorer(NormTableRegistry.load(RESOURCES));
+		int ageBand = RbansScorer.ageBand(39);
+		// The "36+" row and "9-10" column of baseline/language/20-39-baseline-language.csv
+		assertEquals(130, scorer.calculateLanguageScore(Timepoint.BASELINE, ageBand, 10, 36));
+		assertEquals(130, scorer.calculateLanguageScore(Timepoint.BASELINE, ageBand, 9, 38));
+		assertEquals(130, scorer.calculateLanguageScore(Timepoint.BASELINE, ageBand, 12, 80));
+		// The "35" row
+		assertEquals(127, scorer.calculateLanguageScore(Timepoint.BASELINE, ageBand, 10, 35));
+	}
+
+	@Test
+	void changedCsvMakesThePackStale() throws IOException {
+		Path resources = temporary.resolve("resources");
+		copyTree(Path.of(RESOURCES), resources);
+		ByteBuffer pack = NormTablePack.open(writePack(resources.toString()));
+		NormTablePack.checkSources(pack, resources.toString());
+
+		Files.writeString(csv(resources, 2, NormTableRegistry.ATTENTION, 3), "\n", StandardOpenOption.APPEND);
+		assertThrows(IOException.class, () -> NormTablePack.checkSources(pack, resources.toString()));
+	}
+
+	@Test
+	void corruptPackIsRejected() throws IOException {
+		Path packFile = writePack(RESOURCES);
+		byte[] bytes = Files.readAllBytes(packFile);
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(packFile, bytes);
+		assertThrows(IOException.class, () -> NormTablePack.open(packFile));
+	}
+
+	private Path writePack(String resourceDirectory) throws IOException {
+		Path packFile = temporary.resolve("norm-tables.pack");
+		NormTablePack.main(new String[] {resourceDirectory, packFile.toString()});
+		return packFile;
+	}
+
+	private static Path csv(Path resources, int stage, int test, int ageRange) {
+		String stageName = NormTableRegistry.TEST_STAGES[stage];
+		String testName = NormTableRegistry.TESTS[test];
+		return resources.resolve(stageName).resolve(testName)
+				.resolve(NormTableRegistry.AGE_RANGES[ageRange] + "-" + stageName + "-" + testName + ".csv");
+	}
+
+	/**
+	 * @return The table's cells, with a copy of a bucketed column's cells for every raw score it covers
+	 */
+	private static int[][] expandedCells(Path csv) throws IOException {
+		List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8).stream().filter(l -> !l.isBlank()).toList();
+		String[] headers = lines.get(0).split(",");
+		int[] widths = new int[headers.length];
+		int columnCount = 0;
+		for (int i = 1; i < headers.length; i++) {
+			String[] bounds = headers[i].trim().split("-");
+			widths[i] = (bounds.length == 1) ? 1 : Integer.parseInt(bounds[1]) - Integer.parseInt(bounds[0]) + 1;
+			columnCount += widths[i];
+		}
+		int[][] cells = new int[lines.size() - 1][columnCount];
+		for (int row = 0; row < cells.length; row++) {
+			String[] values = lines.get(row + 1).split(",");
+			int column = 0;
+			for (int i = 1; i < values.length; i++) {
+				for (int j = 0; j < widths[i]; j++) {
+					cells[row][column++] = Integer.parseInt(values[i].trim());
+				}
+			}
+		}
+		return cells;
+	}
+
+	private static void copyTree(Path source, Path target) throws IOException {
+		try (Stream<Path> paths = Files.walk(source)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				Path copy = target.resolve(source.relativize(path).toString());
+				if (Files.isDirectory(path)) {
+					Files.createDirectories(copy);
+				} else {
+					Files.copy(path, copy);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,119 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Corrects rows of RBANS_Crosscheck.csv whose given scores are known to be right (subjects 101, 102, 104 and 107 at
+ * Baseline) after breaking some of them
+ */
+class ScoreFileCorrectorTest {
+	private static ScoreFileCorrector corrector;
+	private static List<String> sample;
+
+	@TempDir
+	Path temporary;
+
+	@BeforeAll
+	static void loadNormTables() throws IOException {
+		corrector = new ScoreFileCorrector(new Crosschecker(new RbansScorer(NormTableRegistry.openDefault())));
+		Path crosscheck = Path.of(NormTableRegistry.locate(NormTableRegistry.DEFAULT_RESOURCE_DIRECTORY),
+				"RBANS_Crosscheck.csv");
+		sample = Files.readAllLines(crosscheck, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void copiesEverythingButTheCorrectedCells() throws IOException {
+		Path input = write("scores.csv", brokenScores());
+		Path output = temporary.resolve("corrected.csv");
+		Path audit = ScoreFileCorrector.auditFile(input);
+
+		assertEquals(5, corrector.correct(input, output, audit, mismatch -> true));
+		// The short row gets its missing scores, but none of the cells after them
+		String expected = scores("130", ",104,97,91,456");
+		assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), Files.readAllBytes(output));
+
+		List<String> auditRows = Files.readAllLines(audit, StandardCharsets.UTF_8);
+		assertEquals("Row,Subject ID,Timepoint,Column,Old,New,Corrected At", auditRows.get(0));
+		assertEquals(List.of("2,101,Baseline,Language,129,130",
+				"5,104,Baseline,Language,,104",
+				"5,104,Baseline,Attention,,97",
+				"5,104,Baseline,Delayed Memory,,91",
+				"5,104,Baseline,Sum Index,,456"),
+				auditRows.subList(1, auditRows.size()).stream().map(r -> r.substring(0, r.lastIndexOf(','))).toList());
+	}
+
+	@Test
+	void copiesTheFileUnchangedWhenNothingIsCorrected() throws IOException {
+		Path input = write("scores.csv", brokenScores());
+		Path output = temporary.resolve("corrected.csv");
+		Path audit = ScoreFileCorrector.auditFile(input);
+
+		assertEquals(0, corrector.correct(input, output, audit, mismatch -> false));
+		assertArrayEquals(Files.readAllBytes(input), Files.readAllBytes(output));
+		assertFalse(Files.exists(audit));
+	}
+
+	@Test
+	void correctsInPlaceAndKeepsTheAudit() throws IOException {
+		Path input = write("scores.csv", brokenScores());
+		Path audit = ScoreFileCorrector.auditFile(input);
+		assertEquals(5, corrector.correct(input, input, audit, mismatch -> true));
+		byte[] corrected = Files.readAllBytes(input);
+		byte[] firstAudit = Files.readAllBytes(audit);
+
+		assertEquals(0, corrector.correct(input, input, audit, mismatch -> true));
+		assertArrayEquals(corrected, Files.readAllBytes(input));
+		assertArrayEquals(firstAudit, Files.readAllBytes(audit));
+
+		// A later correction is added to the earlier ones
+		Files.writeString(input, Files.readString(input).replace(",130,103,", ",131,103,"));
+		assertEquals(1, corrector.correct(input, input, audit, mismatch -> true));
+		List<String> auditRows = Files.readAllLines(audit, StandardCharsets.UTF_8);
+		assertEquals(7, auditRows.size());
+		assertTrue(auditRows.get(6).startsWith("2,101,Baseline,Language,131,130,"));
+	}
+
+	@Test
+	void auditGoesNextToTheScores() {
+		assertEquals(Path.of("data", "scores.corrections.csv"), ScoreFileCorrector.auditFile(Path.of("data", "scores.csv")));
+		assertEquals(Path.of("scores.corrections.csv"), ScoreFileCorrector.auditFile(Path.of("scores")));
+	}
+
+	private static String brokenScores() {
+		return scores("\"129\"", "");
+	}
+
+	/**
+	 * Builds a scores file with a byte order mark, CRLF line endings, a blank line, a quoted cell across two lines, and
+	 * no line ending after the last row
+	 * @param language101 Subject 101's Language score, 130 when right
+	 * @param tail104 Appended to subject 104's row, which is cut short before its Language score
+	 */
+	private static String scores(String language101, String tail104) {
+		String header = sample.get(0).replace("\uFEFF", "");
+		String subject101 = row("101").replace("101,B,", "101,\"B, é\nnote\",")
+				.replace(",81,130,103,", ",81," + language101 + ",103,");
+		String subject104 = row("104").substring(0, row("104").indexOf(",104,97,")) + tail104;
+		return "\uFEFF" + header + "\r\n" + subject101 + "\r\n\r\n" + row("102") + "\r\n" + subject104 + "\r\n"
+				+ row("107");
+	}
+
+	private static String row(String subjectId) {
+		return sample.stream().filter(line -> line.startsWith(subjectId + ",")).findFirst().orElseThrow();
+	}
+
+	private Path write(String name, String contents) throws IOException {
+		return Files.writeString(temporary.resolve(name), contents, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,123 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ScoreFileReaderTest {
+	@Test
+	void unquotesCells() throws IOException {
+		ScoreFileReader reader = read("Subject ID,Group,Note\n"
+				+ "7,\"A, B\",\"said \"\"hi\"\"\"\n"
+				+ "8,\"two\nlines\",\" 12 \"\n");
+		assertTrue(reader.next());
+		assertEquals(7, reader.getInt(0));
+		assertEquals("A, B", reader.getString(1));
+		assertEquals("said \"hi\"", reader.getString(2));
+		assertTrue(reader.next());
+		assertEquals("two\nlines", reader.getString(1));
+		assertEquals(12, reader.getInt(2));
+		assertFalse(reader.next());
+	}
+
+	@Test
+	void stripsByteOrderMark() throws IOException {
+		ScoreFileReader reader = read("\uFEFFSubject ID,Age\n101,39\n");
+		assertEquals(List.of("Subject ID", "Age"), reader.headers());
+		assertEquals(0, reader.columnIndex("Subject ID"));
+		assertTrue(reader.next());
+		assertEquals(101, reader.getInt(0));
+		// 3 bytes of byte order mark, "Subject ID,Age" and the line ending
+		assertEquals(18, reader.getRecordStart());
+	}
+
+	@Test
+	void skipsBlankLines() throws IOException {
+		ScoreFileReader reader = read("Subject ID,Age\r\n\r\n101,39\r\n\n \n102,40");
+		assertTrue(reader.next());
+		assertEquals(1, reader.getRowNumber());
+		assertEquals(3, reader.getRecordNumber());
+		assertEquals(101, reader.getInt(0));
+		assertTrue(reader.next());
+		// The line holding a space is a row, but an empty one
+		assertEquals(ScoreRowSource.MISSING_INT, reader.getInt(0));
+		assertTrue(reader.next());
+		assertEquals(3, reader.getRowNumber());
+		assertEquals(6, reader.getRecordNumber());
+		assertEquals(102, reader.getInt(0));
+		assertEquals(40, reader.getInt(1));
+		assertFalse(reader.next());
+	}
+
+	@Test
+	void unreadableIntegersAreMissing() throws IOException {
+		ScoreFileReader reader = read("A,B,C,D,E,F,G\n2147483647,2147483648,99999999999,-12,12.0,-,x1\n");
+		assertTrue(reader.next());
+		assertEquals(Integer.MAX_VALUE, reader.getInt(0));
+		assertEquals(ScoreRowSource.MISSING_INT, reader.getInt(1));
+		assertEquals(ScoreRowSource.MISSING_INT, reader.getInt(2));
+		assertEquals(-12, reader.getInt(3));
+		assertEquals(ScoreRowSource.MISSING_INT, reader.getInt(4));
+		assertEquals(ScoreRowSource.MISSING_INT, reader.getInt(5));
+		assertEquals(ScoreRowSource.MISSING_INT, reader.getInt(6));
+		// Past the end of the row
+		assertEquals(ScoreRowSource.MISSING_INT, reader.getInt(7));
+		assertEquals("", reader.getString(7));
+	}
+
+	@Test
+	void growsForLongRows() throws IOException {
+		StringBuilder header = new StringBuilder("C0");
+		StringBuilder row = new StringBuilder("0");
+		for (int i = 1; i < 500; i++) {
+			header.append(",C").append(i);
+			row.append(',').append(i);
+		}
+		String longCell = "x".repeat(100_000);
+		ScoreFileReader reader = read(header + "\n" + row + "\n" + longCell + ",1\n");
+		assertEquals(500, reader.headers().size());
+		assertTrue(reader.next());
+		assertEquals(499, reader.getInt(499));
+		assertTrue(reader.next());
+		assertEquals(longCell, reader.getString(0));
+		assertEquals(1, reader.getInt(1));
+	}
+
+	@Test
+	void tracksUtf8BytePositions() throws IOException {
+		ScoreFileReader reader = read("A,B\n\"é€\",😀\n");
+		assertTrue(reader.next());
+		assertEquals(4, reader.getRecordStart());
+		// Quotes, 2 bytes of é and 3 of €
+		assertEquals(7, reader.getFieldByteEnd(0));
+		assertEquals(12, reader.getFieldByteEnd(1));
+		assertEquals(12, reader.getContentBytes());
+		assertEquals(17, reader.getRecordEnd());
+	}
+
+	@Test
+	void readsTimepoints() throws IOException {
+		ScoreFileReader reader = read("Timepoint\n baseline \nMID\nLater\n");
+		assertTrue(reader.next());
+		assertEquals(Timepoint.BASELINE, reader.getTimepoint(0));
+		assertTrue(reader.next());
+		assertEquals(Timepoint.MID, reader.getTimepoint(0));
+		assertTrue(reader.next());
+		assertNull(reader.getTimepoint(0));
+	}
+
+	@Test
+	void emptyFileIsAnError() {
+		assertThrows(IOException.class, () -> read(""));
+	}
+
+	private static ScoreFileReader read(String csv) throws IOException {
+		return new ScoreFileReader(new StringReader(csv));
+	}
+}
@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SubjectIndexTest {
+	@Test
+	void keepsEverySubjectAcrossResizes() {
+		SubjectIndex subjects = new SubjectIndex();
+		int count = 10_000;
+		for (int i = 0; i < count; i++) {
+			subjects.add(1000 + i, Timepoint.BASELINE, i, 1, 2, 3, 4);
+		}
+		for (int i = count - 1; i >= 0; i--) {
+			subjects.add(1000 + i, Timepoint.POST, i + 1, 1, 2, 3, 4);
+		}
+		assertEquals(count, subjects.size());
+		for (int entry = 0; entry < count; entry++) {
+			// Entries stay in the order subjects were first seen
+			assertEquals(1000 + entry, subjects.getSubjectId(entry));
+			assertEquals(entry, subjects.getScore(entry, Timepoint.BASELINE, Domain.IMMEDIATE_MEMORY));
+			assertEquals(1, subjects.getChange(entry, Timepoint.BASELINE, Timepoint.POST, Domain.IMMEDIATE_MEMORY));
+			assertEquals(entry + 10, subjects.getScore(entry, Timepoint.BASELINE, Domain.SUM_INDEX));
+			assertEquals(SubjectIndex.NOT_SCORED, subjects.getScore(entry, Timepoint.MID, Domain.LANGUAGE));
+		}
+	}
+
+	@Test
+	void collidingSubjectsKeepTheirOwnEntries() {
+		// Subject IDs whose hashes share their low 13 bits, so they land in the same slot of the table while it has 2048
+		// slots and again after it grows to 4096
+		int mask = (1 << 13) - 1;
+		int[] colliding = new int[1500];
+		int found = 0;
+		for (int id = 1; found < colliding.length; id++) {
+			if ((SubjectIndex.hash(id) & mask) == (SubjectIndex.hash(0) & mask)) {
+				colliding[found++] = id;
+			}
+		}
+
+		SubjectIndex subjects = new SubjectIndex();
+		subjects.add(0, Timepoint.BASELINE, 50, 50, 50, 50, 50);
+		for (int i = 0; i < colliding.length; i++) {
+			subjects.add(colliding[i], Timepoint.BASELINE, i, 1, 1, 1, 1);
+		}
+		for (int i = 0; i < colliding.length; i++) {
+			subjects.addUnscored(colliding[i], Timepoint.MID);
+		}
+		assertEquals(colliding.length + 1, subjects.size());
+		assertEquals(250, subjects.getScore(0, Timepoint.BASELINE, Domain.SUM_INDEX));
+		for (int i = 0; i < colliding.length; i++) {
+			assertEquals(colliding[i], subjects.getSubjectId(i + 1));
+			assertEquals(i, subjects.getScore(i + 1, Timepoint.BASELINE, Domain.IMMEDIATE_MEMORY));
+			assertEquals(1, subjects.getRowCount(i + 1, Timepoint.MID));
+		}
+		assertEquals(0, subjects.getRowCount(0, Timepoint.MID));
+	}
+
+	@Test
+	void keepsTheFirstRowOfATimepoint() {
+		SubjectIndex subjects = new SubjectIndex();
+		subjects.add(7, Timepoint.BASELINE, 100, 100, 100, 100, 100);
+		subjects.add(7, Timepoint.MID, 100, 100, 100, 100, 100);
+		subjects.add(7, Timepoint.POST, 100, 100, 100, 100, 100);
+		assertFalse(subjects.isIncomplete(0));
+
+		subjects.add(7, Timepoint.MID, 90, 90, 90, 90, 90);
+		assertEquals(1, subjects.size());
+		assertEquals(2, subjects.getRowCount(0, Timepoint.MID));
+		assertEquals(100, subjects.getScore(0, Timepoint.MID, Domain.ATTENTION));
+		assertTrue(subjects.isIncomplete(0));
+	}
+
+	@Test
+	void countsInvalidRows() {
+		SubjectIndex subjects = new SubjectIndex();
+		subjects.add(ScoreRowSource.MISSING_INT, Timepoint.BASELINE, 100, 100, 100, 100, 100);
+		subjects.addUnscored(ScoreRowSource.MISSING_INT, Timepoint.MID);
+		subjects.addUnknownTimepoint(ScoreRowSource.MISSING_INT);
+		assertEquals(0, subjects.size());
+		assertEquals(3, subjects.getRowsWithoutSubjectId());
+
+		for (Timepoint timepoint : Timepoint.values()) {
+			subjects.addUnscored(8, timepoint);
+		}
+		assertFalse(subjects.isIncomplete(0));
+		subjects.addUnknownTimepoint(8);
+		subjects.addUnknownTimepoint(8);
+		assertEquals(2, subjects.getUnknownTimepointRows(0));
+		assertTrue(subjects.isIncomplete(0));
+	}
+}
@@ -0,0 +1,139 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class XlsxScoreReaderTest {
+	private final static String MAIN_NAMESPACE = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+	private final static String RELATIONSHIPS_NAMESPACE =
+			"http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+	@TempDir
+	Path temporary;
+
+	@Test
+	void readsSharedAndInlineStrings() throws IOException {
+		Path workbook = writeWorkbook(List.of("Subject ID", "Group, \"quoted\"", "Timepoint"),
+				"<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c>"
+						+ "<c r=\"C1\" t=\"s\"><v>2</v></c></row>"
+						+ "<row r=\"2\"><c r=\"A2\"><v>101</v></c>"
+						+ "<c r=\"B2\" t=\"inlineStr\"><is><r><t>A, </t></r><r><t>B</t></r></is></c>"
+						+ "<c r=\"C2\" t=\"inlineStr\"><is><t> Baseline </t></is></c></row>");
+		try (XlsxScoreReader reader = new XlsxScoreReader(workbook)) {
+			assertEquals(List.of("Subject ID", "Group, \"quoted\"", "Timepoint"), reader.headers());
+			assertTrue(reader.next());
+			assertEquals(101, reader.getInt(0));
+			assertEquals("A, B", reader.getString(1));
+			assertEquals(Timepoint.BASELINE, reader.getTimepoint(2));
+			assertFalse(reader.next());
+		}
+	}
+
+	@Test
+	void skipsBlankRows() throws IOException {
+		Path workbook = writeWorkbook(List.of(),
+				"<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t>Subject ID</t></is></c>"
+						+ "<c r=\"B1\" t=\"inlineStr\"><is><t>Age</t></is></c></row>"
+						+ "<row r=\"2\"/>"
+						+ "<row r=\"3\"><c r=\"A3\"><v>101</v></c><c r=\"B3\"><v>39</v></c></row>"
+						+ "<row r=\"5\"><c r=\"A5\"/><c r=\"B5\" t=\"inlineStr\"><is><t></t></is></c></row>"
+						+ "<row r=\"7\"><c r=\"B7\"><v>40</v></c></row>");
+		try (XlsxScoreReader reader = new XlsxScoreReader(workbook)) {
+			assertTrue(reader.next());
+			assertEquals(1, reader.getRowNumber());
+			assertEquals(101, reader.getInt(0));
+			assertTrue(reader.next());
+			assertEquals(2, reader.getRowNumber());
+			// A7 is missing, so B7 still lands in the "Age" column
+			assertEquals(ScoreRowSource.MISSING_INT, reader.getInt(0));
+			assertEquals(40, reader.getInt(1));
+			assertFalse(reader.next());
+		}
+	}
+
+	@Test
+	void readsWholeNumbersOnly() throws IOException {
+		Path workbook = writeWorkbook(List.of(),
+				"<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t>A</t></is></c></row>"
+						+ "<row r=\"2\"><c r=\"A2\"><v>12.0</v></c><c r=\"B2\"><v>11.999999999999998</v></c>"
+						+ "<c r=\"C2\"><v>12.5</v></c><c r=\"D2\"><v>3000000000</v></c><c r=\"E2\"><v>-4</v></c>"
+						+ "<c r=\"F2\" t=\"inlineStr\"><is><t>n/a</t></is></c><c r=\"G2\"><v>1E+20</v></c></row>");
+		try (XlsxScoreReader reader = new XlsxScoreReader(workbook)) {
+			assertTrue(reader.next());
+			assertEquals(12, reader.getInt(0));
+			assertEquals(12, reader.getInt(1));
+			assertEquals(ScoreRowSource.MISSING_INT, reader.getInt(2));
+			assertEquals(ScoreRowSource.MISSING_INT, reader.getInt(3));
+			assertEquals(-4, reader.getInt(4));
+			assertEquals(ScoreRowSource.MISSING_INT, reader.getInt(5));
+			assertEquals(ScoreRowSource.MISSING_INT, reader.getInt(6));
+			assertEquals(ScoreRowSource.MISSING_INT, reader.getInt(7));
+		}
+	}
+
+	@Test
+	void missingSharedStringIsAnError() throws IOException {
+		Path workbook = writeWorkbook(List.of("Subject ID"),
+				"<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c></row>"
+						+ "<row r=\"2\"><c r=\"A2\" t=\"s\"><v>5</v></c></row>");
+		try (XlsxScoreReader reader = new XlsxScoreReader(workbook)) {
+			assertThrows(IOException.class, reader::next);
+		}
+	}
+
+	@Test
+	void columnLettersAreBase26() {
+		assertEquals(0, XlsxScoreReader.referenceColumn("A1"));
+		assertEquals(25, XlsxScoreReader.referenceColumn("Z9"));
+		assertEquals(26, XlsxScoreReader.referenceColumn("AA10"));
+		assertEquals(27, XlsxScoreReader.referenceColumn("AB12"));
+	}
+
+	/**
+	 * Writes a workbook with one sheet
+	 * @param sharedStrings The shared strings, or none to leave out the shared strings part
+	 * @param rows The sheet's &lt;row&gt; elements
+	 */
+	private Path writeWorkbook(List<String> sharedStrings, String rows) throws IOException {
+		Path file = temporary.resolve("scores.xlsx");
+		try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(file))) {
+			write(zip, "xl/workbook.xml", "<workbook xmlns=\"" + MAIN_NAMESPACE + "\" xmlns:r=\"" + RELATIONSHIPS_NAMESPACE
+					+ "\"><sheets><sheet name=\"Scores\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+			StringBuilder relationships = new StringBuilder(
+					"<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+							+ "<Relationship Id=\"rId1\" Type=\"" + RELATIONSHIPS_NAMESPACE + "/worksheet\" "
+							+ "Target=\"worksheets/sheet1.xml\"/>");
+			if (!sharedStrings.isEmpty()) {
+				relationships.append("<Relationship Id=\"rId2\" Type=\"").append(RELATIONSHIPS_NAMESPACE)
+						.append("/sharedStrings\" Target=\"sharedStrings.xml\"/>");
+				StringBuilder strings = new StringBuilder("<sst xmlns=\"" + MAIN_NAMESPACE + "\">");
+				for (String string : sharedStrings) {
+					strings.append("<si><t>").append(string.replace("&", "&amp;").replace("<", "&lt;")
+							.replace("\"", "&quot;")).append("</t></si>");
+				}
+				write(zip, "xl/sharedStrings.xml", strings.append("</sst>").toString());
+			}
+			write(zip, "xl/_rels/workbook.xml.rels", relationships.append("</Relationships>").toString());
+			write(zip, "xl/worksheets/sheet1.xml", "<worksheet xmlns=\"" + MAIN_NAMESPACE + "\"><sheetData>" + rows
+					+ "</sheetData></worksheet>");
+		}
+		return file;
+	}
+
+	private static void write(ZipOutputStream zip, String name, String xml) throws IOException {
+		zip.putNextEntry(new ZipEntry(name));
+		zip.write(xml.getBytes(StandardCharsets.UTF_8));
+		zip.closeEntry();
+	}
+}
@@ -0,0 +1,38 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Compares calculated and given index scores several rows at a time with the Vector API. Kept in its own source
+ * folder, built only by the "vector" Maven profile, so the default build doesn't need the incubating module. Loaded by
+ * name when jdk.incubator.vector is available (see ColumnarCrosscheck.VECTORIZED); otherwise ColumnarCrosscheck
+ * compares rows one at a time.
+ */
+final class VectorMismatchKernel implements ColumnarCrosscheck.MismatchKernel {
+	private final static VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+	/**
+	 * Sets the bit of each scorable row whose calculated score differs from its given score
+	 * @param calculated Calculated index scores
+	 * @param given Given index scores
+	 * @param worst Lowest result of each row's domains; the row is skipped if it's a result code
+	 * @param rowCount Number of rows to compare
+	 * @param bitmap One bit per row, row r at bit (r % 64) of word (r / 64)
+	 */
+	@Override
+	public void mismatches(int[] calculated, int[] given, int[] worst, int rowCount, long[] bitmap) {
+		// Lane counts are powers of two no larger than 64, so one vector's bits never straddle two words
+		int lanes = SPECIES.length();
+		int bound = SPECIES.loopBound(rowCount);
+		int r = 0;
+		for (; r < bound; r += lanes) {
+			IntVector c = IntVector.fromArray(SPECIES, calculated, r);
+			IntVector g = IntVector.fromArray(SPECIES, given, r);
+			IntVector w = IntVector.fromArray(SPECIES, worst, r);
+			VectorMask<Integer> mismatch = c.compare(VectorOperators.NE, g).and(w.compare(VectorOperators.GE, 0));
+			bitmap[r >>> 6] |= mismatch.toLong() << (r & 63);
+		}
+		ColumnarCrosscheck.scalarMismatches(calculated, given, worst, r, rowCount, bitmap);
+	}
+}